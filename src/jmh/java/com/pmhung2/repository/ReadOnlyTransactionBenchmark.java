@@ -0,0 +1,106 @@
+package com.pmhung2.repository;
+
+import com.pmhung2.domain.Money;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Benchmarks of the read of a page of monies in a read-write and in a read-only transaction, on an H2 database.
+ * <p>
+ * In a read-write transaction, Hibernate keeps a snapshot of each entity read and dirty checks them on flush. The gc
+ * profiler of the benchmark profile reports the allocations of each read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadOnlyTransactionBenchmark {
+
+    private static final int MONIES = 2000;
+
+    @Param({ "20", "1000" })
+    private int pageSize;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private JpaRepository<Money, Long> moneyRepository;
+
+    private TransactionTemplate readWriteTransaction;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup
+    public void setup() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        Properties properties = new Properties();
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        properties.put("hibernate.cache.use_second_level_cache", "false");
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.pmhung2.domain");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        // The implementation of the methods of MoneyRepository used here, without its custom fragments
+        moneyRepository = new SimpleJpaRepository<>(Money.class, entityManager);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        readWriteTransaction.executeWithoutResult(status -> {
+            for (int i = 0; i < MONIES; i++) {
+                moneyRepository.save(new Money().name("money-" + i).roll("roll-" + (i % 10)).income(i));
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public List<Money> readWrite() {
+        return readWriteTransaction.execute(status -> readPage());
+    }
+
+    @Benchmark
+    public List<Money> readOnly() {
+        return readOnlyTransaction.execute(status -> readPage());
+    }
+
+    private List<Money> readPage() {
+        return moneyRepository.findAll(PageRequest.of(0, pageSize, Sort.by("id"))).getContent();
+    }
+}
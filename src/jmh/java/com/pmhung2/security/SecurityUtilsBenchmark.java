@@ -0,0 +1,75 @@
+package com.pmhung2.security;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Benchmarks of the lookup of the current user and of its authorities, done by the auditing and the resources of each
+ * authenticated request.
+ * <p>
+ * The authentication is either the one of a login, or the {@link AuthorityMaskAuthentication} of a JWT token.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SecurityUtilsBenchmark {
+
+    @Param({ "usernamePassword", "authorityMask" })
+    public String authentication;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SecurityContextHolder.getContext().setAuthentication(createAuthentication());
+    }
+
+    private Authentication createAuthentication() {
+        if ("authorityMask".equals(authentication)) {
+            AuthorityRegistry authorityRegistry = new AuthorityRegistry();
+            authorityRegistry.register(List.of(AuthoritiesConstants.ADMIN));
+            long mask = authorityRegistry.register(List.of(AuthoritiesConstants.USER));
+            User principal = new User("user", "", authorityRegistry.getAuthorities(mask));
+            return new AuthorityMaskAuthentication(principal, "token", mask, authorityRegistry);
+        }
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER));
+        User principal = new User("user", "", authorities);
+        return new UsernamePasswordAuthenticationToken(principal, "token", authorities);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Optional<String> getCurrentUserLogin() {
+        return SecurityUtils.getCurrentUserLogin();
+    }
+
+    @Benchmark
+    public boolean hasCurrentUserThisAuthority() {
+        return SecurityUtils.hasCurrentUserThisAuthority(AuthoritiesConstants.ADMIN);
+    }
+}
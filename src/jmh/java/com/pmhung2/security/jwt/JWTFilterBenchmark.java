@@ -0,0 +1,63 @@
+package com.pmhung2.security.jwt;
+
+import com.pmhung2.config.ApplicationProperties;
+import com.pmhung2.management.SecurityMetersService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Benchmarks of the extraction of the JWT token from the {@code Authorization} header, done for each request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JWTFilterBenchmark {
+
+    private JWTFilter jwtFilter;
+
+    private MockHttpServletRequest bearerRequest;
+
+    private MockHttpServletRequest anonymousRequest;
+
+    @Setup
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8");
+        jwtFilter =
+            new JWTFilter(
+                new TokenProvider(jHipsterProperties, new SecurityMetersService(new SimpleMeterRegistry()), new ApplicationProperties())
+            );
+        bearerRequest = new MockHttpServletRequest();
+        bearerRequest.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer eyJhbGciOiJIUzUxMiJ9.eyJzdWIiOiJ1c2VyIn0.signature");
+        anonymousRequest = new MockHttpServletRequest();
+    }
+
+    @Benchmark
+    public String resolveBearerToken() {
+        return jwtFilter.resolveToken(bearerRequest);
+    }
+
+    @Benchmark
+    public String resolveMissingToken() {
+        return jwtFilter.resolveToken(anonymousRequest);
+    }
+}
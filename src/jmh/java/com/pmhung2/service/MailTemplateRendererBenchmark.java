@@ -0,0 +1,113 @@
+package com.pmhung2.service;
+
+import com.pmhung2.config.Constants;
+import com.pmhung2.config.MailTemplateConfiguration;
+import com.pmhung2.domain.User;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+/**
+ * Benchmarks of the rendering of the emails sent to users, in renders per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MailTemplateRendererBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final String TEMPLATE = "mail/activationEmail";
+
+    private static final String TITLE_KEY = "email.activation.title";
+
+    private ResourceBundleMessageSource messageSource;
+
+    private SpringTemplateEngine cachedTemplateEngine;
+
+    private SpringTemplateEngine uncachedTemplateEngine;
+
+    private MailTemplateRenderer renderer;
+
+    private List<User> users;
+
+    @Setup
+    public void setup() {
+        messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding(StandardCharsets.UTF_8.name());
+        cachedTemplateEngine = templateEngine(true);
+        uncachedTemplateEngine = templateEngine(false);
+        renderer = new MailTemplateRenderer(cachedTemplateEngine, messageSource, "http://127.0.0.1:8080");
+        renderer.precompile(Map.of(TEMPLATE, TITLE_KEY), List.of(Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE)));
+        users = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            User user = new User();
+            user.setLogin("user-" + i);
+            user.setEmail("user-" + i + "@localhost");
+            user.setLangKey(Constants.DEFAULT_LANGUAGE);
+            user.setActivationKey("activation-key-" + i);
+            users.add(user);
+        }
+    }
+
+    /**
+     * Rendering as done before the templates were cached, with {@code spring.thymeleaf.cache} disabled.
+     */
+    @Benchmark
+    public MailTemplateRenderer.RenderedEmail renderUncached() {
+        return new MailTemplateRenderer(uncachedTemplateEngine, messageSource, "http://127.0.0.1:8080").render(
+            users.get(0),
+            TEMPLATE,
+            TITLE_KEY
+        );
+    }
+
+    @Benchmark
+    public MailTemplateRenderer.RenderedEmail render() {
+        return renderer.render(users.get(0), TEMPLATE, TITLE_KEY);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<MailTemplateRenderer.RenderedEmail> renderAll() {
+        return renderer.renderAll(users, TEMPLATE, TITLE_KEY);
+    }
+
+    private SpringTemplateEngine templateEngine(boolean cached) {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        templateResolver.setCacheable(false);
+        if (cached) {
+            templateResolver.getCacheablePatternSpec().addPattern(MailTemplateConfiguration.MAIL_TEMPLATES);
+        }
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        return templateEngine;
+    }
+}
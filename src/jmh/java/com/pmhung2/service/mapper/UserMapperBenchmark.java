@@ -0,0 +1,98 @@
+package com.pmhung2.service.mapper;
+
+import com.pmhung2.domain.Authority;
+import com.pmhung2.domain.User;
+import com.pmhung2.repository.AuthorityRepository;
+import com.pmhung2.security.AuthoritiesConstants;
+import com.pmhung2.security.AuthorityRegistry;
+import com.pmhung2.service.AuthorityService;
+import com.pmhung2.service.dto.AdminUserDTO;
+import com.pmhung2.service.dto.UserDTO;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the mapping of users to their DTOs, done by the user listings, and back, with the authorities served
+ * by an {@link AuthorityService} over a stub repository.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMapperBenchmark {
+
+    @Param({ "1", "20", "100" })
+    private int size;
+
+    private UserMapper userMapper;
+
+    private List<User> users;
+
+    private List<AdminUserDTO> userDTOs;
+
+    @Setup
+    public void setup() {
+        Authority user = new Authority();
+        user.setName(AuthoritiesConstants.USER);
+        Authority admin = new Authority();
+        admin.setName(AuthoritiesConstants.ADMIN);
+        AuthorityRepository authorityRepository = Mockito.mock(AuthorityRepository.class);
+        Mockito.when(authorityRepository.findAll()).thenReturn(List.of(user, admin));
+        userMapper = new UserMapper(new AuthorityService(authorityRepository, new AuthorityRegistry()));
+        userDTOs = new ArrayList<>(size);
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User entity = new User();
+            entity.setId((long) i);
+            entity.setLogin("user-" + i);
+            entity.setFirstName("first");
+            entity.setLastName("last");
+            entity.setEmail("user-" + i + "@localhost");
+            entity.setActivated(true);
+            entity.setLangKey("en");
+            entity.setCreatedBy("system");
+            entity.setCreatedDate(Instant.now());
+            entity.setLastModifiedBy("system");
+            entity.setLastModifiedDate(Instant.now());
+            entity.setAuthorities(Set.of(user, admin));
+            users.add(entity);
+            userDTOs.add(new AdminUserDTO(entity));
+        }
+    }
+
+    @Benchmark
+    public List<UserDTO> usersToUserDTOs() {
+        return userMapper.usersToUserDTOs(users);
+    }
+
+    @Benchmark
+    public List<User> userDTOsToUsers() {
+        return userMapper.userDTOsToUsers(userDTOs);
+    }
+
+    @Benchmark
+    public List<AdminUserDTO> newAdminUserDTOs() {
+        List<AdminUserDTO> dtos = new ArrayList<>(users.size());
+        for (User entity : users) {
+            dtos.add(new AdminUserDTO(entity));
+        }
+        return dtos;
+    }
+}
@@ -1,5 +1,8 @@
 package com.pmhung2.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +12,678 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Bulk bulk = new Bulk();
+
+    private final Pagination pagination = new Pagination();
+
+    private final Cache cache = new Cache();
+
+    private final Cluster cluster = new Cluster();
+
+    private final TokenCache tokenCache = new TokenCache();
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final MailOutbox mailOutbox = new MailOutbox();
+
+    private final MethodTiming methodTiming = new MethodTiming();
+
+    private final QueryMetrics queryMetrics = new QueryMetrics();
+
+    private final HibernateStatistics hibernateStatistics = new HibernateStatistics();
+
+    private final Replica replica = new Replica();
+
+    private final LoginThrottling loginThrottling = new LoginThrottling();
+
+    private final RefreshToken refreshToken = new RefreshToken();
+
+    private final TokenRevocation tokenRevocation = new TokenRevocation();
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Pagination getPagination() {
+        return pagination;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public TokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public MailOutbox getMailOutbox() {
+        return mailOutbox;
+    }
+
+    public MethodTiming getMethodTiming() {
+        return methodTiming;
+    }
+
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    public HibernateStatistics getHibernateStatistics() {
+        return hibernateStatistics;
+    }
+
+    public Replica getReplica() {
+        return replica;
+    }
+
+    public LoginThrottling getLoginThrottling() {
+        return loginThrottling;
+    }
+
+    public RefreshToken getRefreshToken() {
+        return refreshToken;
+    }
+
+    public TokenRevocation getTokenRevocation() {
+        return tokenRevocation;
+    }
+
+    public static class Bulk {
+
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Pagination {
+
+        private Duration countEstimateRefreshInterval = Duration.ofMinutes(1);
+
+        public Duration getCountEstimateRefreshInterval() {
+            return countEstimateRefreshInterval;
+        }
+
+        public void setCountEstimateRefreshInterval(Duration countEstimateRefreshInterval) {
+            this.countEstimateRefreshInterval = countEstimateRefreshInterval;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Overrides of the size and time to live of the cache regions, by region name.
+         */
+        private final Map<String, Region> regions = new HashMap<>();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public static class Region {
+
+            private Long maxEntries;
+
+            private Duration timeToLive;
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+        }
+    }
+
+    public static class Cluster {
+
+        /**
+         * The service id the instances of the cluster are registered under.
+         */
+        private String serviceId = "jhipsterproject";
+
+        /**
+         * The timeout of the messages sent to the other instances.
+         */
+        private Duration timeout = Duration.ofSeconds(2);
+
+        /**
+         * The longest a message received from another instance may have been sent before, or after given clock skews:
+         * older messages are rejected, so that a captured message cannot be replayed.
+         */
+        private Duration maxMessageAge = Duration.ofSeconds(30);
+
+        public String getServiceId() {
+            return serviceId;
+        }
+
+        public void setServiceId(String serviceId) {
+            this.serviceId = serviceId;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getMaxMessageAge() {
+            return maxMessageAge;
+        }
+
+        public void setMaxMessageAge(Duration maxMessageAge) {
+            this.maxMessageAge = maxMessageAge;
+        }
+    }
+
+    public static class TokenCache {
+
+        /**
+         * The maximum number of authenticated JWT tokens kept in memory.
+         */
+        private long maxEntries = 10000;
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    public static class PasswordHashing {
+
+        /**
+         * The number of passwords hashed or verified at once.
+         */
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * The number of passwords waiting for a thread, beyond which the requests are rejected.
+         */
+        private int queueCapacity = 100;
+
+        /**
+         * The BCrypt cost of the new password hashes.
+         */
+        private int strength = 10;
+
+        /**
+         * Whether passwords hashed with a lower cost are rehashed when their user logs in.
+         */
+        private boolean rehashOnLogin = false;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getStrength() {
+            return strength;
+        }
+
+        public void setStrength(int strength) {
+            this.strength = strength;
+        }
+
+        public boolean isRehashOnLogin() {
+            return rehashOnLogin;
+        }
+
+        public void setRehashOnLogin(boolean rehashOnLogin) {
+            this.rehashOnLogin = rehashOnLogin;
+        }
+    }
+
+    public static class VirtualThreads {
+
+        /**
+         * Whether the servlet requests and the async tasks run on virtual threads, only supported on JDK 21 and later.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The minimum time a virtual thread must be pinned to its carrier thread to be recorded.
+         */
+        private Duration pinnedThreshold = Duration.ofMillis(20);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPinnedThreshold() {
+            return pinnedThreshold;
+        }
+
+        public void setPinnedThreshold(Duration pinnedThreshold) {
+            this.pinnedThreshold = pinnedThreshold;
+        }
+    }
+
+    public static class MailOutbox {
+
+        /**
+         * Whether this instance sends the emails of the outbox.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The delay between two reads of the outbox.
+         */
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        /**
+         * The number of emails sent over a single SMTP connection.
+         */
+        private int batchSize = 50;
+
+        /**
+         * The maximum number of emails sent per second, 0 for no limit.
+         */
+        private int maxPerSecond = 20;
+
+        /**
+         * The number of attempts after which an email is marked as failed.
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * The delay before the first retry of an email, doubled after each attempt.
+         */
+        private Duration retryBackoff = Duration.ofMinutes(1);
+
+        /**
+         * How long the emails of a batch are claimed by the instance sending them, they are sent again once it expires
+         * if that instance stopped meanwhile. It must be longer than the sending of a batch.
+         */
+        private Duration lease = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxPerSecond() {
+            return maxPerSecond;
+        }
+
+        public void setMaxPerSecond(int maxPerSecond) {
+            this.maxPerSecond = maxPerSecond;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+    }
+
+    public static class MethodTiming {
+
+        /**
+         * Whether the latency of the services and REST endpoints is recorded.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The fraction of the calls that are timed, between 0 and 1.
+         */
+        private double sampleRate = 0.01;
+
+        /**
+         * Whether the timers publish a percentile histogram.
+         */
+        private boolean percentileHistogram = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public boolean isPercentileHistogram() {
+            return percentileHistogram;
+        }
+
+        public void setPercentileHistogram(boolean percentileHistogram) {
+            this.percentileHistogram = percentileHistogram;
+        }
+    }
+
+    public static class QueryMetrics {
+
+        /**
+         * Whether the statements of the REST requests and the rows returned by the repositories are recorded.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The number of executions of the same statement in a request from which it is reported as an N+1 select.
+         */
+        private int repeatedStatementThreshold = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getRepeatedStatementThreshold() {
+            return repeatedStatementThreshold;
+        }
+
+        public void setRepeatedStatementThreshold(int repeatedStatementThreshold) {
+            this.repeatedStatementThreshold = repeatedStatementThreshold;
+        }
+    }
+
+    public static class HibernateStatistics {
+
+        /**
+         * The execution time from which a query is kept in the slow queries, while the statistics are enabled.
+         */
+        private Duration slowQueryThreshold = Duration.ofMillis(100);
+
+        /**
+         * The number of recent slow queries kept.
+         */
+        private int slowQueryBufferSize = 50;
+
+        public Duration getSlowQueryThreshold() {
+            return slowQueryThreshold;
+        }
+
+        public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+            this.slowQueryThreshold = slowQueryThreshold;
+        }
+
+        public int getSlowQueryBufferSize() {
+            return slowQueryBufferSize;
+        }
+
+        public void setSlowQueryBufferSize(int slowQueryBufferSize) {
+            this.slowQueryBufferSize = slowQueryBufferSize;
+        }
+    }
+
+    public static class Replica {
+
+        /**
+         * The replication lag beyond which the read-only transactions are sent to the primary.
+         */
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        /**
+         * The delay between two checks of the replication lag.
+         */
+        private Duration lagCheckInterval = Duration.ofSeconds(10);
+
+        /**
+         * The query reading the replication lag in seconds on the replica, only the connection is checked when not set.
+         */
+        private String lagQuery;
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public Duration getLagCheckInterval() {
+            return lagCheckInterval;
+        }
+
+        public void setLagCheckInterval(Duration lagCheckInterval) {
+            this.lagCheckInterval = lagCheckInterval;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+    }
+
+    public static class LoginThrottling {
+
+        /**
+         * Whether the login attempts are throttled.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The login attempts allowed from a client address.
+         */
+        private final Bucket ip = new Bucket(30, Duration.ofMinutes(1));
+
+        /**
+         * The login attempts allowed on a login.
+         */
+        private final Bucket login = new Bucket(10, Duration.ofMinutes(1));
+
+        /**
+         * The number of client addresses, and of logins, whose attempts are tracked.
+         */
+        private long maxKeys = 100_000;
+
+        /**
+         * The number of reverse proxies in front of the application, each appending the address it received the request
+         * from to the {@code X-Forwarded-For} header: the client address is the entry of the header that many from the
+         * end. With none, the client address is the remote address of the request.
+         */
+        private int trustedProxies = 0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Bucket getIp() {
+            return ip;
+        }
+
+        public Bucket getLogin() {
+            return login;
+        }
+
+        public long getMaxKeys() {
+            return maxKeys;
+        }
+
+        public void setMaxKeys(long maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        public int getTrustedProxies() {
+            return trustedProxies;
+        }
+
+        public void setTrustedProxies(int trustedProxies) {
+            this.trustedProxies = trustedProxies;
+        }
+
+        public static class Bucket {
+
+            /**
+             * The number of attempts allowed in a burst.
+             */
+            private int capacity;
+
+            /**
+             * The time to refill the bucket entirely.
+             */
+            private Duration period;
+
+            public Bucket(int capacity, Duration period) {
+                this.capacity = capacity;
+                this.period = period;
+            }
+
+            public int getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(int capacity) {
+                this.capacity = capacity;
+            }
+
+            public Duration getPeriod() {
+                return period;
+            }
+
+            public void setPeriod(Duration period) {
+                this.period = period;
+            }
+        }
+    }
+
+    public static class RefreshToken {
+
+        /**
+         * The time a session may go without refreshing its access token.
+         */
+        private Duration tokenValidity = Duration.ofDays(1);
+
+        /**
+         * The time a remembered session may go without refreshing its access token.
+         */
+        private Duration tokenValidityForRememberMe = Duration.ofDays(30);
+
+        public Duration getTokenValidity() {
+            return tokenValidity;
+        }
+
+        public void setTokenValidity(Duration tokenValidity) {
+            this.tokenValidity = tokenValidity;
+        }
+
+        public Duration getTokenValidityForRememberMe() {
+            return tokenValidityForRememberMe;
+        }
+
+        public void setTokenValidityForRememberMe(Duration tokenValidityForRememberMe) {
+            this.tokenValidityForRememberMe = tokenValidityForRememberMe;
+        }
+    }
+
+    public static class TokenRevocation {
+
+        /**
+         * The interval between two reloads of the revocations from the database, which catch up with the revocations
+         * of the other instances that could not be sent to this one.
+         */
+        private Duration reloadInterval = Duration.ofMinutes(1);
+
+        public Duration getReloadInterval() {
+            return reloadInterval;
+        }
+
+        public void setReloadInterval(Duration reloadInterval) {
+            this.reloadInterval = reloadInterval;
+        }
+    }
+}
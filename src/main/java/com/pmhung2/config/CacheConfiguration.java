@@ -0,0 +1,108 @@
+package com.pmhung2.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.boot.info.GitProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.jhipster.config.JHipsterProperties;
+import tech.jhipster.config.cache.PrefixedKeyGenerator;
+
+/**
+ * Configuration of the Caffeine caches, used as the Hibernate second-level cache.
+ * <p>
+ * Every region is bounded by {@code jhipster.cache.caffeine.max-entries} and expires after
+ * {@code jhipster.cache.caffeine.time-to-live-seconds}, unless overridden in {@code application.cache.regions}.
+ * Statistics are enabled, so hits, misses and evictions are exported as the {@code cache.*} metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    private GitProperties gitProperties;
+    private BuildProperties buildProperties;
+
+    private final JHipsterProperties.Cache.Caffeine caffeine;
+
+    private final ApplicationProperties.Cache cacheProperties;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.caffeine = jHipsterProperties.getCache().getCaffeine();
+        this.cacheProperties = applicationProperties.getCache();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer() {
+        return cm -> {
+            // The cached users are mutable entities, each caller gets its own copy rather than the cached instance.
+            createCache(cm, com.pmhung2.repository.UserRepository.USERS_BY_LOGIN_CACHE, true);
+            createCache(cm, com.pmhung2.repository.UserRepository.USERS_BY_EMAIL_CACHE, true);
+            createCache(cm, com.pmhung2.domain.User.class.getName());
+            createCache(cm, com.pmhung2.domain.Authority.class.getName());
+            createCache(cm, com.pmhung2.domain.User.class.getName() + ".authorities");
+            createCache(cm, com.pmhung2.domain.Money.class.getName());
+            createCache(cm, com.pmhung2.domain.Income.class.getName());
+            createCache(cm, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+            // The timestamps of the last table updates must outlive the cached queries, they are never evicted.
+            createCache(cm, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+            // jhipster-needle-caffeine-add-entry
+        };
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, false);
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName, boolean storeByValue) {
+        ApplicationProperties.Cache.Region region = cacheProperties.getRegions().get(cacheName);
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        long maxEntries = region != null && region.getMaxEntries() != null ? region.getMaxEntries() : caffeine.getMaxEntries();
+        Duration timeToLive = region != null && region.getTimeToLive() != null
+            ? region.getTimeToLive()
+            : Duration.ofSeconds(caffeine.getTimeToLiveSeconds());
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(timeToLive.getSeconds())));
+        configuration.setStoreByValue(storeByValue);
+        createCache(cm, cacheName, configuration);
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName, CaffeineConfiguration<Object, Object> configuration) {
+        javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        } else {
+            configuration.setStatisticsEnabled(true);
+            cm.createCache(cacheName, configuration);
+        }
+    }
+
+    @Autowired(required = false)
+    public void setGitProperties(GitProperties gitProperties) {
+        this.gitProperties = gitProperties;
+    }
+
+    @Autowired(required = false)
+    public void setBuildProperties(BuildProperties buildProperties) {
+        this.buildProperties = buildProperties;
+    }
+
+    @Bean
+    public KeyGenerator keyGenerator() {
+        return new PrefixedKeyGenerator(this.gitProperties, this.buildProperties);
+    }
+}
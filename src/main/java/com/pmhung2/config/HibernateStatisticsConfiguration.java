@@ -0,0 +1,67 @@
+package com.pmhung2.config;
+
+import com.pmhung2.management.HibernateStatisticsEndpoint;
+import com.pmhung2.management.HibernateStatisticsMetrics;
+import com.pmhung2.management.SlowQueryLog;
+import com.pmhung2.management.SlowQueryStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.hibernate.stat.internal.StatisticsInitiator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the Hibernate statistics, exported as metrics and by the {@code hibernatestatistics} endpoint.
+ * <p>
+ * The statistics are disabled by {@code hibernate.generate_statistics}, and switched on and off at runtime with the
+ * endpoint. While enabled, the queries slower than {@code application.hibernate-statistics.slow-query-threshold} are
+ * kept in a {@link SlowQueryLog}.
+ */
+@Configuration
+public class HibernateStatisticsConfiguration {
+
+    private final ApplicationProperties.HibernateStatistics properties;
+
+    public HibernateStatisticsConfiguration(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getHibernateStatistics();
+    }
+
+    @Bean
+    public SlowQueryLog slowQueryLog() {
+        return new SlowQueryLog(properties.getSlowQueryThreshold(), properties.getSlowQueryBufferSize());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer slowQueryHibernatePropertiesCustomizer(SlowQueryLog slowQueryLog) {
+        return hibernateProperties -> hibernateProperties.put(StatisticsInitiator.STATS_BUILDER, SlowQueryStatistics.factory(slowQueryLog));
+    }
+
+    @Bean
+    public Statistics hibernateStatistics(EntityManagerFactory entityManagerFactory) {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Binds the {@link HibernateStatisticsMetrics} once all the singletons are created, as a {@code MeterBinder} bean
+     * would be bound while the meter registry is created, which can happen while the entity manager factory is itself
+     * being created.
+     */
+    @Bean
+    public SmartInitializingSingleton hibernateStatisticsMetricsBinder(
+        ObjectProvider<MeterRegistry> meterRegistry,
+        ObjectProvider<Statistics> hibernateStatistics,
+        SlowQueryLog slowQueryLog
+    ) {
+        return () -> new HibernateStatisticsMetrics(hibernateStatistics.getObject(), slowQueryLog).bindTo(meterRegistry.getObject());
+    }
+
+    @Bean
+    public HibernateStatisticsEndpoint hibernateStatisticsEndpoint(Statistics hibernateStatistics, SlowQueryLog slowQueryLog) {
+        return new HibernateStatisticsEndpoint(hibernateStatistics, slowQueryLog);
+    }
+}
@@ -0,0 +1,30 @@
+package com.pmhung2.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.thymeleaf.templateresolver.AbstractConfigurableTemplateResolver;
+
+/**
+ * Keep the email templates in the Thymeleaf template cache, even when {@code spring.thymeleaf.cache} is disabled.
+ * <p>
+ * Emails are sent in bulk, parsing their template for each of them is too costly, even in development.
+ */
+@Configuration
+public class MailTemplateConfiguration {
+
+    public static final String MAIL_TEMPLATES = "mail/*";
+
+    @Bean
+    public static BeanPostProcessor mailTemplateCacheBeanPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractConfigurableTemplateResolver) {
+                    ((AbstractConfigurableTemplateResolver) bean).getCacheablePatternSpec().addPattern(MAIL_TEMPLATES);
+                }
+                return bean;
+            }
+        };
+    }
+}
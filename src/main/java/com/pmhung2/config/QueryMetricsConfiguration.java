@@ -0,0 +1,72 @@
+package com.pmhung2.config;
+
+import com.pmhung2.management.RepositoryRowsInterceptor;
+import com.pmhung2.management.StatementCounter;
+import com.pmhung2.management.StatementMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration of the metrics of the database queries, exported with the other metrics.
+ * <p>
+ * Spring Boot times each repository method, this configuration also records the rows they return, and the statements
+ * run by each REST request, reporting the statements repeated at least
+ * {@code application.query-metrics.repeated-statement-threshold} times in a request.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.query-metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMetricsConfiguration implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+
+    private final ApplicationProperties.QueryMetrics properties;
+
+    public QueryMetricsConfiguration(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = applicationProperties.getQueryMetrics();
+    }
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterHibernatePropertiesCustomizer(StatementCounter statementCounter) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    @Bean
+    public static BeanPostProcessor repositoryRowsBeanPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        RepositoryProxyPostProcessor proxyPostProcessor = (proxyFactory, repository) ->
+            proxyFactory.addAdvice(new RepositoryRowsInterceptor(meterRegistry.getObject(), repository.getRepositoryInterface()));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                            factory -> factory.addRepositoryProxyPostProcessor(proxyPostProcessor)
+                        );
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry
+            .addInterceptor(new StatementMetricsInterceptor(statementCounter(), meterRegistry, properties.getRepeatedStatementThreshold()))
+            .addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,117 @@
+package com.pmhung2.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Checks the replication lag of the replica, and takes the replica out of the routing while it lags too much.
+ * <p>
+ * The lag is read with {@code application.replica.lag-query}, from the {@code Seconds_Behind_Source} or
+ * {@code Seconds_Behind_Master} column of {@code SHOW REPLICA STATUS} on MySQL, or else from the first column. A
+ * replica that cannot be reached, or whose replication is stopped, is not available either. Without lag query, only
+ * the connection to the replica is checked.
+ */
+public class ReplicaLagMonitor {
+
+    private static final String[] LAG_COLUMNS = { "Seconds_Behind_Source", "Seconds_Behind_Master" };
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource replica;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    private final ApplicationProperties.Replica properties;
+
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(
+        DataSource replica,
+        ReplicaRoutingDataSource routingDataSource,
+        ApplicationProperties.Replica properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.replica = replica;
+        this.routingDataSource = routingDataSource;
+        this.properties = properties;
+        Gauge
+            .builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+            .description("Replication lag of the replica, NaN when unknown")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge
+            .builder("datasource.replica.available", routingDataSource, r -> r.isReplicaAvailable() ? 1 : 0)
+            .description("Whether the read-only transactions are sent to the replica")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(
+        initialDelayString = "${application.replica.lag-check-interval:PT10S}",
+        fixedDelayString = "${application.replica.lag-check-interval:PT10S}"
+    )
+    public void check() {
+        Duration maxLag = properties.getMaxLag();
+        boolean available;
+        try (Connection connection = replica.getConnection()) {
+            if (properties.getLagQuery() == null) {
+                lagSeconds = Double.NaN;
+                available = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } else {
+                Long lag = readLag(connection);
+                lagSeconds = lag == null ? Double.NaN : lag;
+                available = lag != null && lag <= maxLag.getSeconds();
+            }
+        } catch (SQLException e) {
+            log.debug("Could not check the replica: {}", e.getMessage());
+            lagSeconds = Double.NaN;
+            available = false;
+        }
+        if (available != routingDataSource.isReplicaAvailable()) {
+            if (available) {
+                log.info("Replica is available again, sending the read-only transactions to it");
+            } else if (Double.isNaN(lagSeconds)) {
+                log.warn("Replica is not reachable or not replicating, sending the read-only transactions to the primary");
+            } else {
+                log.warn("Replica lags by {} seconds, sending the read-only transactions to the primary", lagSeconds);
+            }
+            routingDataSource.setReplicaAvailable(available);
+        }
+    }
+
+    /**
+     * @return the lag in seconds, or {@code null} if the replication is stopped.
+     */
+    private Long readLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(properties.getLagQuery())) {
+            if (!resultSet.next()) {
+                // Not a replica, so never behind
+                return 0L;
+            }
+            long lag = resultSet.getLong(lagColumn(resultSet.getMetaData()));
+            return resultSet.wasNull() ? null : lag;
+        }
+    }
+
+    private int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            for (String lagColumn : LAG_COLUMNS) {
+                if (lagColumn.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                    return i;
+                }
+            }
+        }
+        return 1;
+    }
+}
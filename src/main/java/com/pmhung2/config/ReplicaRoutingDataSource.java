@@ -0,0 +1,67 @@
+package com.pmhung2.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending the read-only transactions to the replica, and everything else to the primary.
+ * <p>
+ * The connection must only be requested once the transaction has started, so this data source is used behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}. When the replica is not available, the
+ * read-only transactions fall back to the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String CONNECTIONS_METER_NAME = "datasource.routing.connections";
+
+    enum Target {
+        PRIMARY,
+        REPLICA,
+    }
+
+    private final Counter primaryCounter;
+
+    private final Counter replicaCounter;
+
+    private final Counter fallbackCounter;
+
+    private volatile boolean replicaAvailable = true;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryCounter = connectionsCounter("primary").register(meterRegistry);
+        this.replicaCounter = connectionsCounter("replica").register(meterRegistry);
+        this.fallbackCounter = connectionsCounter("fallback").register(meterRegistry);
+    }
+
+    private Counter.Builder connectionsCounter(String target) {
+        return Counter.builder(CONNECTIONS_METER_NAME).description("Connections obtained, by routing target").tag("target", target);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryCounter.increment();
+            return Target.PRIMARY;
+        }
+        if (!replicaAvailable) {
+            fallbackCounter.increment();
+            return Target.PRIMARY;
+        }
+        replicaCounter.increment();
+        return Target.REPLICA;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    public void setReplicaAvailable(boolean replicaAvailable) {
+        this.replicaAvailable = replicaAvailable;
+    }
+}
@@ -0,0 +1,63 @@
+package com.pmhung2.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.function.Consumer;
+import jdk.jfr.EventSettings;
+import jdk.jfr.consumer.RecordedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Metrics of the virtual threads pinned to their carrier thread.
+ * <p>
+ * A virtual thread blocking inside a {@code synchronized} block or a native frame keeps its carrier thread, which can
+ * starve the other virtual threads. The {@code jdk.VirtualThreadPinned} events longer than the given threshold are
+ * streamed from JFR and recorded by the {@code jvm.threads.virtual.pinned} timer.
+ */
+public class VirtualThreadPinningMetrics implements MeterBinder, DisposableBean {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMetrics.class);
+
+    private final Duration threshold;
+
+    private AutoCloseable recordingStream;
+
+    public VirtualThreadPinningMetrics(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Timer pinned = Timer
+            .builder("jvm.threads.virtual.pinned")
+            .description("Time virtual threads were pinned to their carrier thread")
+            .register(registry);
+        Consumer<RecordedEvent> onPinned = event -> pinned.record(event.getDuration());
+        try {
+            // RecordingStream was added in JDK 14, after the Java version the application is compiled for
+            Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Object stream = streamClass.getConstructor().newInstance();
+            ((EventSettings) streamClass.getMethod("enable", String.class).invoke(stream, PINNED_EVENT)).withThreshold(threshold);
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PINNED_EVENT, onPinned);
+            streamClass.getMethod("startAsync").invoke(stream);
+            recordingStream = (AutoCloseable) stream;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+            log.warn("Could not stream the pinned virtual thread events: {}", cause.toString());
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.pmhung2.config;
+
+import io.undertow.servlet.api.DeploymentInfo;
+import java.util.concurrent.ExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the servlet requests on virtual threads, when {@code application.virtual-threads.enabled} is set and the JDK
+ * supports them.
+ * <p>
+ * Undertow keeps its IO threads, but dispatches each blocking servlet request to a new virtual thread instead of its
+ * bounded worker pool, so that the requests waiting for the database do not hold platform threads. The number of
+ * requests using the database at once is then only limited by the size of the Hikari pool, the other ones wait for
+ * a connection up to {@code spring.datasource.hikari.connection-timeout}. The {@code @Async} methods and the
+ * asynchronous Liquibase startup use virtual threads through {@link AsyncConfiguration}. The executor of the requests
+ * is shut down with the application context, once the web server has stopped.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadsConfiguration implements DisposableBean {
+
+    private final Logger log = LoggerFactory.getLogger(VirtualThreadsConfiguration.class);
+
+    private volatile ExecutorService undertowExecutor;
+
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> virtualThreadsUndertowCustomizer() {
+        return factory -> {
+            if (!VirtualThreadExecutors.isSupported()) {
+                log.warn("Virtual threads are enabled but not supported by JDK {}, requests run on the worker pool", Runtime.version());
+                return;
+            }
+            log.info("Running servlet requests on virtual threads");
+            ExecutorService executor = VirtualThreadExecutors.newVirtualThreadPerTaskExecutor("undertow-virtual-");
+            undertowExecutor = executor;
+            factory.addDeploymentInfoCustomizers((DeploymentInfo deploymentInfo) -> deploymentInfo.setExecutor(executor));
+        };
+    }
+
+    @Override
+    public void destroy() {
+        ExecutorService executor = undertowExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Bean
+    public VirtualThreadPinningMetrics virtualThreadPinningMetrics(ApplicationProperties applicationProperties) {
+        return new VirtualThreadPinningMetrics(applicationProperties.getVirtualThreads().getPinnedThreshold());
+    }
+}
@@ -3,12 +3,15 @@ package com.pmhung2.domain;
 import java.io.Serializable;
 import javax.persistence.*;
 import javax.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Income.
  */
 @Entity
 @Table(name = "income")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Income implements Serializable {
 
     private static final long serialVersionUID = 1L;
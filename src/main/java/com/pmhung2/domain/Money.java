@@ -3,12 +3,15 @@ package com.pmhung2.domain;
 import java.io.Serializable;
 import javax.persistence.*;
 import javax.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Money.
  */
 @Entity
 @Table(name = "money")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Money implements Serializable {
 
     private static final long serialVersionUID = 1L;
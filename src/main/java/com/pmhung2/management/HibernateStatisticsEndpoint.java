@@ -0,0 +1,78 @@
+package com.pmhung2.management;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Endpoint to read the Hibernate statistics and the slow queries, and to switch the statistics on and off at runtime.
+ * <p>
+ * The statistics cost a few counters and clock reads per session and per query, they are disabled by default.
+ */
+@Endpoint(id = HibernateStatisticsEndpoint.ENDPOINT_ID)
+public class HibernateStatisticsEndpoint {
+
+    public static final String ENDPOINT_ID = "hibernatestatistics";
+
+    private final Logger log = LoggerFactory.getLogger(HibernateStatisticsEndpoint.class);
+
+    private final Statistics statistics;
+
+    private final SlowQueryLog slowQueryLog;
+
+    public HibernateStatisticsEndpoint(Statistics statistics, SlowQueryLog slowQueryLog) {
+        this.statistics = statistics;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * GET /hibernatestatistics : get the Hibernate statistics and the slowest recent queries.
+     *
+     * @return the statistics.
+     */
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("startTime", statistics.getStartTime());
+        result.put("entityLoadCount", statistics.getEntityLoadCount());
+        result.put("entityFetchCount", statistics.getEntityFetchCount());
+        result.put("collectionFetchCount", statistics.getCollectionFetchCount());
+        result.put("flushCount", statistics.getFlushCount());
+        result.put("prepareStatementCount", statistics.getPrepareStatementCount());
+        result.put("queryExecutionCount", statistics.getQueryExecutionCount());
+        result.put("queryExecutionMaxTime", statistics.getQueryExecutionMaxTime());
+        result.put("queryExecutionMaxTimeQueryString", statistics.getQueryExecutionMaxTimeQueryString());
+        result.put("secondLevelCacheHitCount", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelCacheMissCount", statistics.getSecondLevelCacheMissCount());
+        result.put("slowQueryCount", slowQueryLog.getCount());
+        result.put("slowQueries", slowQueryLog.getSlowQueries());
+        return result;
+    }
+
+    /**
+     * POST /hibernatestatistics : switch the Hibernate statistics on or off.
+     *
+     * @param enabled whether the statistics are enabled.
+     */
+    @WriteOperation
+    public void enable(boolean enabled) {
+        log.info("Hibernate statistics {}", enabled ? "enabled" : "disabled");
+        statistics.setStatisticsEnabled(enabled);
+    }
+
+    /**
+     * DELETE /hibernatestatistics : reset the Hibernate statistics and the slow queries.
+     */
+    @DeleteOperation
+    public void clear() {
+        statistics.clear();
+        slowQueryLog.clear();
+    }
+}
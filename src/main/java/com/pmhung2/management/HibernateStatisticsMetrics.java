@@ -0,0 +1,68 @@
+package com.pmhung2.management;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Metrics of the Hibernate statistics.
+ * <p>
+ * The counters only increase while the statistics are enabled, see {@link HibernateStatisticsEndpoint}.
+ */
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    private final SlowQueryLog slowQueryLog;
+
+    public HibernateStatisticsMetrics(Statistics statistics, SlowQueryLog slowQueryLog) {
+        this.statistics = statistics;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge
+            .builder("hibernate.statistics.enabled", statistics, s -> s.isStatisticsEnabled() ? 1 : 0)
+            .description("Whether the Hibernate statistics are enabled")
+            .register(registry);
+
+        counter(registry, "hibernate.entities.fetches", "Entities fetched lazily", Statistics::getEntityFetchCount);
+        counter(registry, "hibernate.entities.loads", "Entities loaded", Statistics::getEntityLoadCount);
+        counter(registry, "hibernate.entities.inserts", "Entities inserted", Statistics::getEntityInsertCount);
+        counter(registry, "hibernate.entities.updates", "Entities updated", Statistics::getEntityUpdateCount);
+        counter(registry, "hibernate.entities.deletes", "Entities deleted", Statistics::getEntityDeleteCount);
+        counter(registry, "hibernate.collections.fetches", "Collections fetched lazily", Statistics::getCollectionFetchCount);
+        counter(registry, "hibernate.flushes", "Flushes of the sessions", Statistics::getFlushCount);
+        counter(registry, "hibernate.statements.prepared", "Statements prepared", Statistics::getPrepareStatementCount);
+        counter(registry, "hibernate.query.executions", "Queries executed", Statistics::getQueryExecutionCount);
+        FunctionCounter
+            .builder("hibernate.query.slow", slowQueryLog, SlowQueryLog::getCount)
+            .description("Queries slower than the slow query threshold")
+            .register(registry);
+        TimeGauge
+            .builder("hibernate.query.executions.max", statistics, TimeUnit.MILLISECONDS, Statistics::getQueryExecutionMaxTime)
+            .description("Execution time of the slowest query")
+            .register(registry);
+
+        cacheCounter(registry, "hit", Statistics::getSecondLevelCacheHitCount);
+        cacheCounter(registry, "miss", Statistics::getSecondLevelCacheMissCount);
+    }
+
+    private void counter(MeterRegistry registry, String name, String description, ToDoubleFunction<Statistics> count) {
+        FunctionCounter.builder(name, statistics, count).description(description).register(registry);
+    }
+
+    private void cacheCounter(MeterRegistry registry, String result, ToDoubleFunction<Statistics> count) {
+        FunctionCounter
+            .builder("hibernate.second.level.cache.requests", statistics, count)
+            .description("Requests to the second-level cache")
+            .tag("result", result)
+            .register(registry);
+    }
+}
@@ -0,0 +1,85 @@
+package com.pmhung2.management;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Records the number of rows returned by each method of a Spring Data repository.
+ * <p>
+ * The latency of the methods is recorded by Spring Boot, in {@code spring.data.repository.invocations}. Only the
+ * methods returning entities or projections are recorded: the writes without result, the counts, the flags and the
+ * streams are not.
+ */
+public class RepositoryRowsInterceptor implements MethodInterceptor {
+
+    public static final String ROWS_METER_NAME = "spring.data.repository.rows";
+
+    private final MeterRegistry meterRegistry;
+
+    private final String repository;
+
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public RepositoryRowsInterceptor(MeterRegistry meterRegistry, Class<?> repositoryInterface) {
+        this.meterRegistry = meterRegistry;
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        Method method = invocation.getMethod();
+        int rows = method.getReturnType() == void.class ? -1 : rows(result);
+        if (rows >= 0) {
+            DistributionSummary summary = summaries.get(method);
+            if (summary == null) {
+                summary = summaries.computeIfAbsent(method, this::summary);
+            }
+            summary.record(rows);
+        }
+        return result;
+    }
+
+    /**
+     * Count the rows of a repository result.
+     *
+     * @param result the result of a repository method.
+     * @return the number of rows, or -1 if the result is not made of rows.
+     */
+    static int rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number || result instanceof Boolean || result instanceof AutoCloseable) {
+            return -1;
+        }
+        return 1;
+    }
+
+    private DistributionSummary summary(Method method) {
+        return DistributionSummary
+            .builder(ROWS_METER_NAME)
+            .description("Rows returned by a repository method")
+            .baseUnit("rows")
+            .tag("repository", repository)
+            .tag("method", method.getName())
+            .register(meterRegistry);
+    }
+}
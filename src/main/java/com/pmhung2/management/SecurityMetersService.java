@@ -1,7 +1,9 @@
 package com.pmhung2.management;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -13,16 +15,36 @@ public class SecurityMetersService {
     public static final String INVALID_TOKENS_METER_BASE_UNIT = "errors";
     public static final String INVALID_TOKENS_METER_CAUSE_DIMENSION = "cause";
 
+    public static final String TOKEN_CACHE_NAME = "jwtAuthentications";
+
+    public static final String LOGIN_ATTEMPTS_METER_NAME = "security.authentication.login-attempts";
+    public static final String LOGIN_ATTEMPTS_METER_DESCRIPTION = "Indicates the login attempts allowed and rejected by the throttling.";
+    public static final String LOGIN_ATTEMPTS_METER_BASE_UNIT = "attempts";
+    public static final String LOGIN_ATTEMPTS_METER_RESULT_DIMENSION = "result";
+
+    private final MeterRegistry registry;
+
     private final Counter tokenInvalidSignatureCounter;
     private final Counter tokenExpiredCounter;
     private final Counter tokenUnsupportedCounter;
     private final Counter tokenMalformedCounter;
+    private final Counter tokenRevokedCounter;
+
+    private final Counter loginAllowedCounter;
+    private final Counter loginRejectedByIpCounter;
+    private final Counter loginRejectedByLoginCounter;
 
     public SecurityMetersService(MeterRegistry registry) {
+        this.registry = registry;
         this.tokenInvalidSignatureCounter = invalidTokensCounterForCauseBuilder("invalid-signature").register(registry);
         this.tokenExpiredCounter = invalidTokensCounterForCauseBuilder("expired").register(registry);
         this.tokenUnsupportedCounter = invalidTokensCounterForCauseBuilder("unsupported").register(registry);
         this.tokenMalformedCounter = invalidTokensCounterForCauseBuilder("malformed").register(registry);
+        this.tokenRevokedCounter = invalidTokensCounterForCauseBuilder("revoked").register(registry);
+
+        this.loginAllowedCounter = loginAttemptsCounterForResultBuilder("allowed").register(registry);
+        this.loginRejectedByIpCounter = loginAttemptsCounterForResultBuilder("rejected-ip").register(registry);
+        this.loginRejectedByLoginCounter = loginAttemptsCounterForResultBuilder("rejected-login").register(registry);
     }
 
     private Counter.Builder invalidTokensCounterForCauseBuilder(String cause) {
@@ -33,6 +55,14 @@ public class SecurityMetersService {
             .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
     }
 
+    private Counter.Builder loginAttemptsCounterForResultBuilder(String result) {
+        return Counter
+            .builder(LOGIN_ATTEMPTS_METER_NAME)
+            .baseUnit(LOGIN_ATTEMPTS_METER_BASE_UNIT)
+            .description(LOGIN_ATTEMPTS_METER_DESCRIPTION)
+            .tag(LOGIN_ATTEMPTS_METER_RESULT_DIMENSION, result);
+    }
+
     public void trackTokenInvalidSignature() {
         this.tokenInvalidSignatureCounter.increment();
     }
@@ -48,4 +78,28 @@ public class SecurityMetersService {
     public void trackTokenMalformed() {
         this.tokenMalformedCounter.increment();
     }
+
+    public void trackTokenRevoked() {
+        this.tokenRevokedCounter.increment();
+    }
+
+    public void trackLoginAllowed() {
+        this.loginAllowedCounter.increment();
+    }
+
+    public void trackLoginRejectedByIp() {
+        this.loginRejectedByIpCounter.increment();
+    }
+
+    public void trackLoginRejectedByLogin() {
+        this.loginRejectedByLoginCounter.increment();
+    }
+
+    public void monitorTokenCache(Cache<?, ?> cache) {
+        CaffeineCacheMetrics.monitor(registry, cache, TOKEN_CACHE_NAME);
+    }
+
+    public void monitorLoginThrottlingCache(Cache<?, ?> cache, String cacheName) {
+        CaffeineCacheMetrics.monitor(registry, cache, cacheName);
+    }
 }
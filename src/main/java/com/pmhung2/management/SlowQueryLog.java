@@ -0,0 +1,115 @@
+package com.pmhung2.management;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A bounded ring buffer of the most recent slow queries.
+ * <p>
+ * Queries are recorded as their JPQL or SQL, with the names or positions of their bind parameters and never their
+ * values. Once the buffer is full, each new slow query replaces the oldest one.
+ */
+public class SlowQueryLog {
+
+    private final long thresholdMillis;
+
+    private final SlowQuery[] buffer;
+
+    private int next;
+
+    private long count;
+
+    public SlowQueryLog(Duration threshold, int size) {
+        this.thresholdMillis = threshold.toMillis();
+        this.buffer = new SlowQuery[Math.max(1, size)];
+    }
+
+    /**
+     * Record a query if it is slow.
+     *
+     * @param query the JPQL or SQL of the query.
+     * @param rows the number of rows returned by the query.
+     * @param millis the execution time of the query, in milliseconds.
+     */
+    public void record(String query, int rows, long millis) {
+        if (millis < thresholdMillis) {
+            return;
+        }
+        SlowQuery slowQuery = new SlowQuery(query, rows, millis, Instant.now());
+        synchronized (this) {
+            buffer[next] = slowQuery;
+            next = (next + 1) % buffer.length;
+            count++;
+        }
+    }
+
+    /**
+     * @return the slow queries in the buffer, the slowest first.
+     */
+    public List<SlowQuery> getSlowQueries() {
+        List<SlowQuery> slowQueries = new ArrayList<>(buffer.length);
+        synchronized (this) {
+            for (SlowQuery slowQuery : buffer) {
+                if (slowQuery != null) {
+                    slowQueries.add(slowQuery);
+                }
+            }
+        }
+        slowQueries.sort(Comparator.comparingLong(SlowQuery::getMillis).reversed());
+        return slowQueries;
+    }
+
+    /**
+     * @return the number of slow queries recorded since the start, including the ones no longer in the buffer.
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = null;
+        }
+        next = 0;
+    }
+
+    /**
+     * A slow query execution.
+     */
+    public static final class SlowQuery {
+
+        private final String query;
+
+        private final int rows;
+
+        private final long millis;
+
+        private final Instant timestamp;
+
+        private SlowQuery(String query, int rows, long millis, Instant timestamp) {
+            this.query = query;
+            this.rows = rows;
+            this.millis = millis;
+            this.timestamp = timestamp;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public Instant getTimestamp() {
+            return timestamp;
+        }
+    }
+}
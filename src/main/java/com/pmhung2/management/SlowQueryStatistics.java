@@ -0,0 +1,34 @@
+package com.pmhung2.management;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+
+/**
+ * Hibernate statistics also recording the slow queries in a {@link SlowQueryLog}.
+ * <p>
+ * Like the other statistics, queries are only timed while the statistics are enabled.
+ */
+public class SlowQueryStatistics extends StatisticsImpl {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryStatistics(SessionFactoryImplementor sessionFactory, SlowQueryLog slowQueryLog) {
+        super(sessionFactory);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * @param slowQueryLog the log to record the slow queries in.
+     * @return a factory of statistics recording the slow queries, to set as {@code hibernate.stats.factory}.
+     */
+    public static StatisticsFactory factory(SlowQueryLog slowQueryLog) {
+        return sessionFactory -> new SlowQueryStatistics(sessionFactory, slowQueryLog);
+    }
+
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        super.queryExecuted(hql, rows, time);
+        slowQueryLog.record(hql, rows, time);
+    }
+}
@@ -0,0 +1,96 @@
+package com.pmhung2.management;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the statements run by Hibernate on the current thread, between {@link #start()} and {@link #stop()}.
+ * <p>
+ * The statements run outside of a count are not recorded, so that inspecting them costs a thread local lookup only.
+ * Only the selects are told apart to detect the repeated ones: the inserts, updates and deletes of a flush are
+ * expected to repeat the same statement, once per entity.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ThreadLocal<Statements> current = new ThreadLocal<>();
+
+    /**
+     * Start counting the statements of the current thread.
+     */
+    public void start() {
+        current.set(new Statements());
+    }
+
+    /**
+     * Stop counting the statements of the current thread.
+     *
+     * @return the statements counted since {@link #start()}, or {@code null} if they were not counted.
+     */
+    public Statements stop() {
+        Statements statements = current.get();
+        current.remove();
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Statements statements = current.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * The statements run during a count.
+     */
+    public static final class Statements {
+
+        private final Map<String, Integer> executions = new HashMap<>();
+
+        private int count;
+
+        private void add(String sql) {
+            count++;
+            if (isSelect(sql)) {
+                executions.merge(sql, 1, Integer::sum);
+            }
+        }
+
+        private static boolean isSelect(String sql) {
+            int start = 0;
+            while (true) {
+                while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+                    start++;
+                }
+                // Skip the comments prepended by hibernate.use_sql_comments
+                if (!sql.startsWith("/*", start)) {
+                    break;
+                }
+                int end = sql.indexOf("*/", start + 2);
+                if (end < 0) {
+                    return false;
+                }
+                start = end + 2;
+            }
+            return sql.regionMatches(true, start, "select", 0, 6);
+        }
+
+        /**
+         * @return the number of statements run.
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return the number of executions of each distinct select.
+         */
+        public Map<String, Integer> getExecutions() {
+            return executions;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.pmhung2.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the number of Hibernate statements run by each request, and reports the statements repeated by a request
+ * (N+1 selects).
+ * <p>
+ * The meters are tagged with the URI template of the request, like {@code http.server.requests}. The statements of an
+ * asynchronous request, such as a streamed export, are not counted: they run on another thread, and the count started on
+ * the request thread is dropped when it is released.
+ */
+public class StatementMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String STATEMENTS_METER_NAME = "http.server.requests.statements";
+    public static final String REPEATED_STATEMENTS_METER_NAME = "http.server.requests.statements.repeated";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final Logger log = LoggerFactory.getLogger(StatementMetricsInterceptor.class);
+
+    private final StatementCounter statementCounter;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int repeatedStatementThreshold;
+
+    public StatementMetricsInterceptor(StatementCounter statementCounter, MeterRegistry meterRegistry, int repeatedStatementThreshold) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        statementCounter.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // afterCompletion is not called on this thread, which goes back to the pool of the server
+        statementCounter.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        StatementCounter.Statements statements = statementCounter.stop();
+        if (statements == null) {
+            return;
+        }
+        String uri = uri(request);
+        DistributionSummary
+            .builder(STATEMENTS_METER_NAME)
+            .description("Hibernate statements run by a request")
+            .baseUnit("statements")
+            .tag("method", request.getMethod())
+            .tag("uri", uri)
+            .register(meterRegistry)
+            .record(statements.getCount());
+        for (Map.Entry<String, Integer> execution : statements.getExecutions().entrySet()) {
+            if (execution.getValue() >= repeatedStatementThreshold) {
+                Counter
+                    .builder(REPEATED_STATEMENTS_METER_NAME)
+                    .description("Statements run repeatedly by a request, likely N+1 selects")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+                log.warn(
+                    "{} {} ran the same statement {} times, this is likely an N+1 select: {}",
+                    request.getMethod(),
+                    uri,
+                    execution.getValue(),
+                    execution.getKey()
+                );
+            }
+        }
+    }
+
+    private String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_URI;
+    }
+}
@@ -1,6 +1,8 @@
 package com.pmhung2.repository;
 
 import com.pmhung2.domain.Income;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,21 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface IncomeRepository extends JpaRepository<Income, Long> {}
+public interface IncomeRepository extends IncomeRepositoryWithStreaming, JpaRepository<Income, Long> {
+    /**
+     * Get a slice of the incomes, without counting them.
+     *
+     * @param pageable the page, size and sort of the slice.
+     * @return the slice of incomes.
+     */
+    Slice<Income> findAllBy(Pageable pageable);
+
+    /**
+     * Get a slice of the incomes whose id is greater than the given one, without counting them.
+     *
+     * @param id the id to seek after.
+     * @param pageable the size and sort of the slice.
+     * @return the slice of incomes.
+     */
+    Slice<Income> findAllByIdGreaterThan(Long id, Pageable pageable);
+}
@@ -0,0 +1,15 @@
+package com.pmhung2.repository;
+
+import com.pmhung2.domain.Income;
+import java.util.stream.Stream;
+
+public interface IncomeRepositoryWithStreaming {
+    /**
+     * Stream all the incomes in id order, reading the rows from the database as they are consumed.
+     * <p>
+     * The stream must be closed and consumed within a transaction, which runs no other query until then.
+     *
+     * @return the stream of all the incomes.
+     */
+    Stream<Income> streamAllByOrderById();
+}
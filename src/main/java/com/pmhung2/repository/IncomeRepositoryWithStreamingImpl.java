@@ -0,0 +1,17 @@
+package com.pmhung2.repository;
+
+import com.pmhung2.domain.Income;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class IncomeRepositoryWithStreamingImpl implements IncomeRepositoryWithStreaming {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Income> streamAllByOrderById() {
+        return StreamingQueries.stream(entityManager, entityManager.createQuery("select i from Income i order by i.id", Income.class));
+    }
+}
@@ -0,0 +1,42 @@
+package com.pmhung2.repository;
+
+import com.pmhung2.domain.MailOutboxMessage;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link MailOutboxMessage} entity.
+ */
+@Repository
+public interface MailOutboxMessageRepository extends JpaRepository<MailOutboxMessage, Long> {
+    /**
+     * Lock the messages of the given statuses due before the given instant, in the order they were written.
+     * <p>
+     * The rows locked by another instance are skipped, so that each message is only claimed by one instance.
+     *
+     * @param statuses the statuses of the messages.
+     * @param now the instant the messages must be due before.
+     * @param pageable the number of messages to lock.
+     * @return the locked messages.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    // -2 is org.hibernate.LockOptions.SKIP_LOCKED
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select m from MailOutboxMessage m where m.status in :statuses and m.nextAttemptAt <= :now order by m.id")
+    List<MailOutboxMessage> findDueForUpdate(
+        @Param("statuses") Collection<MailOutboxMessage.Status> statuses,
+        @Param("now") Instant now,
+        Pageable pageable
+    );
+
+    long countByStatus(MailOutboxMessage.Status status);
+
+    long countByStatusIn(Collection<MailOutboxMessage.Status> statuses);
+}
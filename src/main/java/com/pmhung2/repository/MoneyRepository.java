@@ -1,6 +1,9 @@
 package com.pmhung2.repository;
 
 import com.pmhung2.domain.Money;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +12,45 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface MoneyRepository extends JpaRepository<Money, Long> {}
+public interface MoneyRepository extends MoneyRepositoryWithStreaming, MoneyRepositoryWithIncomePercentiles, JpaRepository<Money, Long> {
+    @Query(
+        "select m.roll as roll, count(m) as incomeCount, sum(m.income) as incomeTotal, min(m.income) as minIncome," +
+        " max(m.income) as maxIncome, avg(m.income) as averageIncome" +
+        " from Money m group by m.roll order by m.roll"
+    )
+    List<IncomeStats> findIncomeStatsGroupedByRoll();
+
+    /**
+     * Get a slice of the monies, without counting them.
+     *
+     * @param pageable the page, size and sort of the slice.
+     * @return the slice of monies.
+     */
+    Slice<Money> findAllBy(Pageable pageable);
+
+    /**
+     * Get a slice of the monies whose id is greater than the given one, without counting them.
+     *
+     * @param id the id to seek after.
+     * @param pageable the size and sort of the slice.
+     * @return the slice of monies.
+     */
+    Slice<Money> findAllByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Projection of the income aggregates of a single roll.
+     */
+    interface IncomeStats {
+        String getRoll();
+
+        Long getIncomeCount();
+
+        Long getIncomeTotal();
+
+        Integer getMinIncome();
+
+        Integer getMaxIncome();
+
+        Double getAverageIncome();
+    }
+}
@@ -0,0 +1,16 @@
+package com.pmhung2.repository;
+
+import java.util.List;
+
+public interface MoneyRepositoryWithIncomePercentiles {
+    /**
+     * Get the incomes at the given percentiles of each roll, with the nearest-rank method.
+     * <p>
+     * The incomes are ranked in the database by a single query reading the {@code (roll, income)} index, which
+     * returns one row per roll and percentile.
+     *
+     * @param percentiles the percentiles, each in the {@code (0, 100]} range.
+     * @return the {@code [percentile index, roll, income]} rows, the index being the position in {@code percentiles}.
+     */
+    List<Object[]> findIncomesAtPercentilesByRoll(List<Double> percentiles);
+}
@@ -0,0 +1,47 @@
+package com.pmhung2.repository;
+
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+public class MoneyRepositoryWithIncomePercentilesImpl implements MoneyRepositoryWithIncomePercentiles {
+
+    private static final String RANKED_INCOMES =
+        "with ranked_income as (select roll, income," +
+        " row_number() over (partition by roll order by income) as income_rank," +
+        " count(*) over (partition by roll) as income_count from money)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> findIncomesAtPercentilesByRoll(List<Double> percentiles) {
+        if (percentiles.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder(RANKED_INCOMES);
+        for (int i = 0; i < percentiles.size(); i++) {
+            String percentile = "cast(:percentile" + i + " as double)";
+            if (i > 0) {
+                sql.append(" union all");
+            }
+            // The nearest rank is the first one whose share of the incomes of the roll reaches the percentile
+            sql
+                .append(" select ")
+                .append(i)
+                .append(" as percentile_index, roll, income from ranked_income")
+                .append(" where income_rank * 100 >= ")
+                .append(percentile)
+                .append(" * income_count and (income_rank - 1) * 100 < ")
+                .append(percentile)
+                .append(" * income_count");
+        }
+        Query query = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < percentiles.size(); i++) {
+            query.setParameter("percentile" + i, percentiles.get(i));
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,17 @@
+package com.pmhung2.repository;
+
+import com.pmhung2.domain.Money;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class MoneyRepositoryWithStreamingImpl implements MoneyRepositoryWithStreaming {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Money> streamAllByOrderById() {
+        return StreamingQueries.stream(entityManager, entityManager.createQuery("select m from Money m order by m.id", Money.class));
+    }
+}
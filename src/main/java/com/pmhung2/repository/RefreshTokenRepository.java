@@ -0,0 +1,37 @@
+package com.pmhung2.repository;
+
+import com.pmhung2.domain.RefreshToken;
+import com.pmhung2.domain.User;
+import java.time.Instant;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link RefreshToken} entity.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    /**
+     * Lock a refresh token, so that concurrent uses of the same token are rotated one after the other.
+     *
+     * @param sessionId the session id of the refresh token.
+     * @return the locked refresh token, if found.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<RefreshToken> findOneForUpdateBySessionId(String sessionId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.sessionId = :sessionId")
+    int deleteBySessionId(@Param("sessionId") String sessionId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.user = :user")
+    int deleteByUser(@Param("user") User user);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,40 @@
+package com.pmhung2.repository;
+
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import org.hibernate.CacheMode;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.QueryHints;
+
+/**
+ * Runs the queries whose rows are streamed, read from the database as they are consumed.
+ * <p>
+ * MySQL Connector/J streams the rows of a statement only if its fetch size is {@link Integer#MIN_VALUE}, unless
+ * {@code useCursorFetch} is set on the connection URL, which would switch every statement of the application to a
+ * server-side cursor. The statement then holds its connection until the stream is closed, and no other query may run
+ * on that connection meanwhile. The other databases stream with a positive fetch size. The streamed entities are
+ * read-only and are not put in the second-level cache, which they would otherwise fill with the whole table.
+ */
+final class StreamingQueries {
+
+    static final int FETCH_SIZE = 1000;
+
+    private StreamingQueries() {}
+
+    static <T> Stream<T> stream(EntityManager entityManager, TypedQuery<T> query) {
+        return query
+            .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize(entityManager))
+            .setHint(QueryHints.HINT_READONLY, true)
+            .setHint(QueryHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+            .getResultStream();
+    }
+
+    private static int fetchSize(EntityManager entityManager) {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        return dialect instanceof MySQLDialect ? Integer.MIN_VALUE : FETCH_SIZE;
+    }
+}
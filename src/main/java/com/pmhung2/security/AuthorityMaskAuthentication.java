@@ -0,0 +1,107 @@
+package com.pmhung2.security;
+
+import java.util.Collection;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * An authentication whose authorities are also held as a mask of the {@link AuthorityRegistry}, so that checking them
+ * is a bit operation.
+ * <p>
+ * The authorities and the principal are shared by all the authentications of the same token, nothing is copied.
+ */
+public class AuthorityMaskAuthentication implements Authentication {
+
+    private static final long serialVersionUID = 1L;
+
+    private final UserDetails principal;
+
+    private final Object credentials;
+
+    private final long authorityMask;
+
+    private final transient AuthorityRegistry authorityRegistry;
+
+    private boolean authenticated = true;
+
+    /**
+     * @param principal the principal, holding the interned authorities of the mask.
+     * @param credentials the credentials, the token.
+     * @param authorityMask the mask of the authorities.
+     * @param authorityRegistry the registry of the mask.
+     */
+    public AuthorityMaskAuthentication(UserDetails principal, Object credentials, long authorityMask, AuthorityRegistry authorityRegistry) {
+        this.principal = principal;
+        this.credentials = credentials;
+        this.authorityMask = authorityMask;
+        this.authorityRegistry = authorityRegistry;
+    }
+
+    public long getAuthorityMask() {
+        return authorityMask;
+    }
+
+    /**
+     * @param authority the name of an authority.
+     * @return whether the authority is granted.
+     */
+    public boolean hasAuthority(String authority) {
+        return (authorityMask & authorityRegistry.mask(authority)) != 0;
+    }
+
+    /**
+     * @param authorities the names of some authorities.
+     * @return whether any of the authorities is granted.
+     */
+    public boolean hasAnyAuthority(String... authorities) {
+        return (authorityMask & authorityRegistry.mask(authorities)) != 0;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return principal.getAuthorities();
+    }
+
+    @Override
+    public Object getCredentials() {
+        return credentials;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (authenticated) {
+            throw new IllegalArgumentException("Cannot set this token to trusted, it is trusted when created");
+        }
+        this.authenticated = false;
+    }
+
+    @Override
+    public String getName() {
+        return principal.getUsername();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AuthorityMaskAuthentication{" +
+            "name='" + getName() + "'" +
+            ", authorities=" + getAuthorities() +
+            "}";
+    }
+}
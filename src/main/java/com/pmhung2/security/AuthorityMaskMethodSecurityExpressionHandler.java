@@ -0,0 +1,151 @@
+package com.pmhung2.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Method security expression handler checking {@code hasAuthority} and {@code hasAnyAuthority} on the mask of an
+ * {@link AuthorityMaskAuthentication}, instead of building the set of its authority names for each invocation.
+ * <p>
+ * The other expressions, and any authentication without mask, are evaluated by the default expression root. With a
+ * role hierarchy, the authorities are not only those of the mask, so the default expression root is used as well.
+ */
+public class AuthorityMaskMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    @Override
+    protected MethodSecurityExpressionOperations createSecurityExpressionRoot(Authentication authentication, MethodInvocation invocation) {
+        MethodSecurityExpressionOperations root = super.createSecurityExpressionRoot(authentication, invocation);
+        if (authentication instanceof AuthorityMaskAuthentication && getRoleHierarchy() == null) {
+            return new AuthorityMaskExpressionRoot((AuthorityMaskAuthentication) authentication, root);
+        }
+        return root;
+    }
+
+    /**
+     * Expression root delegating everything but the authority checks to the default expression root.
+     * <p>
+     * The public fields and {@link #getPrincipal()} are those of the default expression root, they are read by the
+     * expressions as properties.
+     */
+    public static class AuthorityMaskExpressionRoot implements MethodSecurityExpressionOperations {
+
+        public final boolean permitAll = true;
+
+        public final boolean denyAll = false;
+
+        public final String read = "read";
+
+        public final String write = "write";
+
+        public final String create = "create";
+
+        public final String delete = "delete";
+
+        public final String admin = "administration";
+
+        private final AuthorityMaskAuthentication authentication;
+
+        private final MethodSecurityExpressionOperations delegate;
+
+        AuthorityMaskExpressionRoot(AuthorityMaskAuthentication authentication, MethodSecurityExpressionOperations delegate) {
+            this.authentication = authentication;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasAuthority(String authority) {
+            return authentication.hasAuthority(authority);
+        }
+
+        @Override
+        public boolean hasAnyAuthority(String... authorities) {
+            return authentication.hasAnyAuthority(authorities);
+        }
+
+        @Override
+        public boolean hasRole(String role) {
+            return delegate.hasRole(role);
+        }
+
+        @Override
+        public boolean hasAnyRole(String... roles) {
+            return delegate.hasAnyRole(roles);
+        }
+
+        @Override
+        public Authentication getAuthentication() {
+            return authentication;
+        }
+
+        public Object getPrincipal() {
+            return authentication.getPrincipal();
+        }
+
+        @Override
+        public boolean permitAll() {
+            return true;
+        }
+
+        @Override
+        public boolean denyAll() {
+            return false;
+        }
+
+        @Override
+        public boolean isAnonymous() {
+            return delegate.isAnonymous();
+        }
+
+        @Override
+        public boolean isAuthenticated() {
+            return delegate.isAuthenticated();
+        }
+
+        @Override
+        public boolean isRememberMe() {
+            return delegate.isRememberMe();
+        }
+
+        @Override
+        public boolean isFullyAuthenticated() {
+            return delegate.isFullyAuthenticated();
+        }
+
+        @Override
+        public boolean hasPermission(Object target, Object permission) {
+            return delegate.hasPermission(target, permission);
+        }
+
+        @Override
+        public boolean hasPermission(Object targetId, String targetType, Object permission) {
+            return delegate.hasPermission(targetId, targetType, permission);
+        }
+
+        @Override
+        public void setFilterObject(Object filterObject) {
+            delegate.setFilterObject(filterObject);
+        }
+
+        @Override
+        public Object getFilterObject() {
+            return delegate.getFilterObject();
+        }
+
+        @Override
+        public void setReturnObject(Object returnObject) {
+            delegate.setReturnObject(returnObject);
+        }
+
+        @Override
+        public Object getReturnObject() {
+            return delegate.getReturnObject();
+        }
+
+        @Override
+        public Object getThis() {
+            return delegate.getThis();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.pmhung2.security;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * The authorities, each interned once and given a bit of its own, so that a set of authorities is held as a
+ * {@code long} mask and checked with a single bit operation.
+ * <p>
+ * The authorities of the {@code jhi_authority} table are registered at startup, by the service loading them; an
+ * authority found in a token but not in the table is registered the first time it is seen. A bit is never reassigned,
+ * so the masks stay valid for the lifetime of the registry, which holds at most {@value #MAX_AUTHORITIES} authorities.
+ */
+@Component
+public class AuthorityRegistry {
+
+    public static final int MAX_AUTHORITIES = Long.SIZE;
+
+    private final Map<String, Integer> bits = new ConcurrentHashMap<>();
+
+    /**
+     * The interned authorities, by bit. An authority is written before its bit is published in {@link #bits}.
+     */
+    private final GrantedAuthority[] authorities = new GrantedAuthority[MAX_AUTHORITIES];
+
+    /**
+     * The interned lists of authorities, by mask.
+     */
+    private final Map<Long, List<GrantedAuthority>> authorityLists = new ConcurrentHashMap<>();
+
+    private int size;
+
+    /**
+     * Get the mask of a set of authorities, registering the ones that are not yet.
+     *
+     * @param names the names of the authorities.
+     * @return the mask of the authorities.
+     */
+    public long register(Iterable<String> names) {
+        long mask = 0;
+        for (String name : names) {
+            mask |= 1L << bit(name);
+        }
+        return mask;
+    }
+
+    /**
+     * Get the mask of some authorities, without registering them: an authority that is not registered is held by
+     * nobody, and has no bit in the mask.
+     *
+     * @param names the names of the authorities.
+     * @return the mask of the authorities.
+     */
+    public long mask(String... names) {
+        long mask = 0;
+        for (String name : names) {
+            Integer bit = bits.get(name);
+            if (bit != null) {
+                mask |= 1L << bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Get the mask of an authority, without registering it.
+     *
+     * @param name the name of the authority.
+     * @return the mask of the authority, {@code 0} if it is not registered.
+     */
+    public long mask(String name) {
+        Integer bit = bits.get(name);
+        return bit == null ? 0 : 1L << bit;
+    }
+
+    /**
+     * @param mask the mask of some authorities.
+     * @return the interned authorities of the mask, in the order of their bits.
+     */
+    public List<GrantedAuthority> getAuthorities(long mask) {
+        List<GrantedAuthority> list = authorityLists.get(mask);
+        if (list == null) {
+            List<GrantedAuthority> newList = new ArrayList<>(Long.bitCount(mask));
+            for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                newList.add(authorities[Long.numberOfTrailingZeros(remaining)]);
+            }
+            list = authorityLists.computeIfAbsent(mask, key -> Collections.unmodifiableList(newList));
+        }
+        return list;
+    }
+
+    /**
+     * @param name the name of an authority.
+     * @return the interned authority, registering it if it is not yet.
+     */
+    public GrantedAuthority getAuthority(String name) {
+        return authorities[bit(name)];
+    }
+
+    private int bit(String name) {
+        Integer bit = bits.get(name);
+        return bit != null ? bit : registerBit(name);
+    }
+
+    private synchronized int registerBit(String name) {
+        Integer bit = bits.get(name);
+        if (bit != null) {
+            return bit;
+        }
+        if (size == MAX_AUTHORITIES) {
+            throw new IllegalStateException("Cannot register authority " + name + ", there are already " + MAX_AUTHORITIES);
+        }
+        authorities[size] = new SimpleGrantedAuthority(name);
+        bits.put(name, size);
+        return size++;
+    }
+}
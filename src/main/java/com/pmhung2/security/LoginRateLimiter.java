@@ -0,0 +1,169 @@
+package com.pmhung2.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.pmhung2.config.ApplicationProperties;
+import com.pmhung2.management.SecurityMetersService;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Throttles the login attempts by client address and by login, before any user is loaded or password verified.
+ * <p>
+ * Each client address and each login has a token bucket of {@code capacity} attempts refilled over {@code period},
+ * kept as the time at which the bucket is full again (the generic cell rate algorithm): an attempt is a single
+ * compare-and-set on that time, without lock. The buckets are held in bounded caches striped by key, holding at most
+ * {@code application.login-throttling.max-keys} keys each, and a bucket idle for a whole period, which is full again
+ * anyway, is evicted.
+ * <p>
+ * Behind {@code application.login-throttling.trusted-proxies} reverse proxies, the client address is read from the end
+ * of the {@code X-Forwarded-For} header, where each proxy appended the address it received the request from: the
+ * entries before them are sent by the client, which could get a fresh bucket for each attempt by changing them.
+ */
+@Component
+public class LoginRateLimiter {
+
+    public static final String IP_CACHE_NAME = "loginAttemptsByIp";
+
+    public static final String LOGIN_CACHE_NAME = "loginAttemptsByLogin";
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final boolean enabled;
+
+    private final int trustedProxies;
+
+    private final SecurityMetersService securityMetersService;
+
+    private final Ticker ticker;
+
+    private final Bucket ipBucket;
+
+    private final Bucket loginBucket;
+
+    @Autowired
+    public LoginRateLimiter(ApplicationProperties applicationProperties, SecurityMetersService securityMetersService) {
+        this(applicationProperties.getLoginThrottling(), securityMetersService, Ticker.systemTicker());
+    }
+
+    LoginRateLimiter(ApplicationProperties.LoginThrottling properties, SecurityMetersService securityMetersService, Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        this.trustedProxies = properties.getTrustedProxies();
+        this.securityMetersService = securityMetersService;
+        this.ticker = ticker;
+        this.ipBucket = new Bucket(properties.getIp(), properties.getMaxKeys(), ticker);
+        this.loginBucket = new Bucket(properties.getLogin(), properties.getMaxKeys(), ticker);
+        securityMetersService.monitorLoginThrottlingCache(ipBucket.attempts, IP_CACHE_NAME);
+        securityMetersService.monitorLoginThrottlingCache(loginBucket.attempts, LOGIN_CACHE_NAME);
+    }
+
+    /**
+     * Counts a login attempt of a request on a login.
+     *
+     * @param request the login request, whose client address is resolved through the trusted proxies.
+     * @param login the login, normalized as the user logins are.
+     * @throws LoginThrottledException if the client address or the login has no attempt left.
+     */
+    public void checkAllowed(HttpServletRequest request, String login) {
+        checkAllowed(clientIp(request.getRemoteAddr(), request.getHeader(X_FORWARDED_FOR)), login);
+    }
+
+    /**
+     * Counts a login attempt from a client address on a login.
+     *
+     * @param clientIp the address of the client.
+     * @param login the login, normalized as the user logins are.
+     * @throws LoginThrottledException if the client address or the login has no attempt left.
+     */
+    public void checkAllowed(String clientIp, String login) {
+        if (!enabled) {
+            return;
+        }
+        long now = ticker.read();
+        long wait = ipBucket.tryAcquire(clientIp, now);
+        if (wait > 0) {
+            securityMetersService.trackLoginRejectedByIp();
+            throw new LoginThrottledException("Too many login attempts from this address", Duration.ofNanos(wait));
+        }
+        if (login != null) {
+            wait = loginBucket.tryAcquire(login.trim().toLowerCase(Locale.ROOT), now);
+            if (wait > 0) {
+                securityMetersService.trackLoginRejectedByLogin();
+                throw new LoginThrottledException("Too many login attempts on this login", Duration.ofNanos(wait));
+            }
+        }
+        securityMetersService.trackLoginAllowed();
+    }
+
+    /**
+     * @return the address appended to the {@code X-Forwarded-For} header by the first trusted proxy, or the remote
+     * address if there are no trusted proxies or the header has fewer entries, as the request did not go through them.
+     */
+    String clientIp(String remoteAddr, String forwardedFor) {
+        if (trustedProxies <= 0 || forwardedFor == null) {
+            return remoteAddr;
+        }
+        String[] addresses = forwardedFor.split(",");
+        if (addresses.length < trustedProxies) {
+            return remoteAddr;
+        }
+        String clientIp = addresses[addresses.length - trustedProxies].trim();
+        return clientIp.isEmpty() ? remoteAddr : clientIp;
+    }
+
+    private static final class Bucket {
+
+        private final Cache<String, AtomicLong> attempts;
+
+        /**
+         * The time refilling one attempt.
+         */
+        private final long interval;
+
+        /**
+         * How far ahead of now the bucket may be full again, that is the time refilling all the attempts but one.
+         */
+        private final long tolerance;
+
+        Bucket(ApplicationProperties.LoginThrottling.Bucket properties, long maxKeys, Ticker ticker) {
+            long period = properties.getPeriod().toNanos();
+            this.interval = period / properties.getCapacity();
+            this.tolerance = interval * (properties.getCapacity() - 1);
+            this.attempts =
+                Caffeine
+                    .newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(properties.getPeriod())
+                    .ticker(ticker)
+                    .recordStats()
+                    .build();
+        }
+
+        /**
+         * @return {@code 0} if the attempt is allowed, or else the time to wait in nanoseconds before the next one is.
+         */
+        long tryAcquire(String key, long now) {
+            AtomicLong fullAt = attempts.get(key, Bucket::newBucket);
+            while (true) {
+                long current = fullAt.get();
+                long start = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+                long wait = start - now - tolerance;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, start + interval)) {
+                    return 0;
+                }
+            }
+        }
+
+        private static AtomicLong newBucket(String key) {
+            return new AtomicLong(Long.MIN_VALUE);
+        }
+    }
+}
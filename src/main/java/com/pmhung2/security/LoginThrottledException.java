@@ -0,0 +1,23 @@
+package com.pmhung2.security;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a login attempt is rejected because too many were made from the same client address or
+ * on the same login.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
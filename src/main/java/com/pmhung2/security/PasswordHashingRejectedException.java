@@ -0,0 +1,13 @@
+package com.pmhung2.security;
+
+/**
+ * This exception is thrown when a password cannot be hashed or verified because too many are already waiting to be.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,8 +1,6 @@
 package com.pmhung2.security;
 
-import java.util.Arrays;
 import java.util.Optional;
-import java.util.stream.Stream;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -58,20 +56,31 @@ public final class SecurityUtils {
      */
     public static boolean isAuthenticated() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return authentication != null && getAuthorities(authentication).noneMatch(AuthoritiesConstants.ANONYMOUS::equals);
+        return authentication != null && !hasAuthority(authentication, AuthoritiesConstants.ANONYMOUS);
     }
 
     /**
      * Checks if the current user has any of the authorities.
+     * <p>
+     * For a user authenticated by a token, this is a bit operation on the mask of its authorities.
      *
      * @param authorities the authorities to check.
      * @return true if the current user has any of the authorities, false otherwise.
      */
     public static boolean hasCurrentUserAnyOfAuthorities(String... authorities) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return (
-            authentication != null && getAuthorities(authentication).anyMatch(authority -> Arrays.asList(authorities).contains(authority))
-        );
+        if (authentication instanceof AuthorityMaskAuthentication) {
+            return ((AuthorityMaskAuthentication) authentication).hasAnyAuthority(authorities);
+        }
+        if (authentication == null) {
+            return false;
+        }
+        for (String authority : authorities) {
+            if (hasAuthority(authentication, authority)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -94,7 +103,15 @@ public final class SecurityUtils {
         return hasCurrentUserAnyOfAuthorities(authority);
     }
 
-    private static Stream<String> getAuthorities(Authentication authentication) {
-        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority);
+    private static boolean hasAuthority(Authentication authentication, String authority) {
+        if (authentication instanceof AuthorityMaskAuthentication) {
+            return ((AuthorityMaskAuthentication) authentication).hasAuthority(authority);
+        }
+        for (GrantedAuthority grantedAuthority : authentication.getAuthorities()) {
+            if (authority.equals(grantedAuthority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,103 @@
+package com.pmhung2.security.jwt;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * The revoked tokens, checked on each request without any I/O.
+ * <p>
+ * A token is revoked either by its id, or together with all the tokens of its user issued up to a given millisecond. Both
+ * are kept in hash sets until the tokens they revoke have expired anyway, so that they only hold the revocations of the
+ * last token validity: while nothing is revoked, a check is two lookups in empty maps. The revocations are persisted
+ * and shared with the other instances by the token revocation service, this class only holds them in memory.
+ */
+@Component
+public class RevokedTokens {
+
+    /**
+     * The revoked token ids, with the second at which each token expires.
+     */
+    private final ConcurrentMap<String, Long> tokenIds = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, UserRevocation> users = new ConcurrentHashMap<>();
+
+    /**
+     * Revoke a token.
+     *
+     * @param tokenId the id of the token.
+     * @param expiresAt when the token expires.
+     */
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        tokenIds.merge(tokenId, expiresAt.getEpochSecond(), Math::max);
+    }
+
+    /**
+     * Revoke the tokens of a user.
+     *
+     * @param login the login of the user.
+     * @param issuedUntil the tokens issued up to this millisecond are revoked.
+     * @param expiresAt when the last of these tokens expires.
+     */
+    public void revokeTokens(String login, Instant issuedUntil, Instant expiresAt) {
+        users.merge(login, new UserRevocation(issuedUntil.toEpochMilli(), expiresAt.getEpochSecond()), UserRevocation::latest);
+    }
+
+    /**
+     * @param tokenId the id of the token, if it has one.
+     * @param login the login of the user of the token.
+     * @param issuedAt when the token was issued, if known.
+     * @return whether the token is revoked.
+     */
+    public boolean isRevoked(String tokenId, String login, Date issuedAt) {
+        if (tokenId != null && !tokenIds.isEmpty() && tokenIds.containsKey(tokenId)) {
+            return true;
+        }
+        if (users.isEmpty()) {
+            return false;
+        }
+        UserRevocation revocation = users.get(login);
+        // A token without issue date may have been issued at any time. A token with an issue date in seconds only is
+        // taken as issued at the start of its second, so that the tokens of the second of the revocation are revoked
+        return revocation != null && (issuedAt == null || issuedAt.getTime() <= revocation.issuedUntil);
+    }
+
+    /**
+     * Forget the revocations of the tokens that have expired.
+     *
+     * @param now the current time.
+     */
+    public void removeExpired(Instant now) {
+        long second = now.getEpochSecond();
+        tokenIds.values().removeIf(expiresAt -> expiresAt < second);
+        users.values().removeIf(revocation -> revocation.expiresAt < second);
+    }
+
+    /**
+     * @return the number of revocations held.
+     */
+    public int size() {
+        return tokenIds.size() + users.size();
+    }
+
+    private static final class UserRevocation {
+
+        /**
+         * The epoch millisecond up to which the tokens are revoked.
+         */
+        private final long issuedUntil;
+
+        private final long expiresAt;
+
+        private UserRevocation(long issuedUntil, long expiresAt) {
+            this.issuedUntil = issuedUntil;
+            this.expiresAt = expiresAt;
+        }
+
+        private UserRevocation latest(UserRevocation other) {
+            return new UserRevocation(Math.max(issuedUntil, other.issuedUntil), Math.max(expiresAt, other.expiresAt));
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package com.pmhung2.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.pmhung2.config.ApplicationProperties;
 import com.pmhung2.management.SecurityMetersService;
+import com.pmhung2.security.AuthorityMaskAuthentication;
+import com.pmhung2.security.AuthorityRegistry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -8,18 +14,27 @@ import io.jsonwebtoken.security.SignatureException;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import tech.jhipster.config.JHipsterProperties;
 
+/**
+ * Creates and validates the JWT tokens.
+ * <p>
+ * A token is parsed and its signature checked only the first time it is presented: the resulting principal and
+ * authorities are cached, keyed by the token, until the token expires or the cache reaches
+ * {@code application.token-cache.max-entries} entries. Whether the token was revoked is checked on each use, in
+ * {@link RevokedTokens}. The authorities are interned in the {@link AuthorityRegistry}, and the authentication of a
+ * request carries them as a mask.
+ */
 @Component
 public class TokenProvider {
 
@@ -27,6 +42,14 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    /**
+     * The issue date in milliseconds: the standard one is in seconds, too coarse to tell the tokens issued just
+     * before a revocation of all the tokens of a user from the ones issued just after.
+     */
+    private static final String ISSUED_AT_MILLIS_KEY = "iat_ms";
+
+    private static final String SESSION_ID_KEY = "sid";
+
     private static final String INVALID_JWT_TOKEN = "Invalid JWT token.";
 
     private final Key key;
@@ -39,7 +62,32 @@ public class TokenProvider {
 
     private final SecurityMetersService securityMetersService;
 
+    private final Cache<String, AuthenticatedToken> authenticatedTokens;
+
+    private final RevokedTokens revokedTokens;
+
+    private final AuthorityRegistry authorityRegistry;
+
     public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
+        this(jHipsterProperties, securityMetersService, new ApplicationProperties());
+    }
+
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        SecurityMetersService securityMetersService,
+        ApplicationProperties applicationProperties
+    ) {
+        this(jHipsterProperties, securityMetersService, applicationProperties, new RevokedTokens(), new AuthorityRegistry());
+    }
+
+    @Autowired
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        SecurityMetersService securityMetersService,
+        ApplicationProperties applicationProperties,
+        RevokedTokens revokedTokens,
+        AuthorityRegistry authorityRegistry
+    ) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -60,9 +108,31 @@ public class TokenProvider {
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
 
         this.securityMetersService = securityMetersService;
+        this.revokedTokens = revokedTokens;
+        this.authorityRegistry = authorityRegistry;
+        this.authenticatedTokens =
+            Caffeine
+                .newBuilder()
+                .maximumSize(applicationProperties.getTokenCache().getMaxEntries())
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        securityMetersService.monitorTokenCache(authenticatedTokens);
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
+        return createToken(authentication, rememberMe, null);
+    }
+
+    /**
+     * Create a token for the refresh session it is issued in.
+     *
+     * @param authentication the authentication.
+     * @param rememberMe whether the token is remembered.
+     * @param sessionId the id of the refresh session, which is closed when the token is revoked by its user.
+     * @return the token.
+     */
+    public String createToken(Authentication authentication, boolean rememberMe, String sessionId) {
         String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
 
         long now = (new Date()).getTime();
@@ -75,32 +145,74 @@ public class TokenProvider {
 
         return Jwts
             .builder()
+            .setId(UUID.randomUUID().toString())
             .setSubject(authentication.getName())
             .claim(AUTHORITIES_KEY, authorities)
+            .claim(ISSUED_AT_MILLIS_KEY, now)
+            .claim(SESSION_ID_KEY, sessionId)
             .signWith(key, SignatureAlgorithm.HS512)
+            .setIssuedAt(new Date(now))
             .setExpiration(validity)
             .compact();
     }
 
+    /**
+     * Validate a token and get the authentication it carries, in a single parse.
+     *
+     * @param token the token.
+     * @return the authentication, or empty if the token is not valid.
+     */
+    public Optional<Authentication> authenticate(String token) {
+        AuthenticatedToken authenticatedToken = authenticatedTokens.getIfPresent(token);
+        if (authenticatedToken == null) {
+            Optional<Claims> claims = parseClaims(token);
+            if (claims.isEmpty()) {
+                return Optional.empty();
+            }
+            authenticatedToken = new AuthenticatedToken(claims.get(), authorityRegistry);
+            if (authenticatedToken.expiration != null) {
+                authenticatedTokens.put(token, authenticatedToken);
+            }
+        }
+        String login = authenticatedToken.principal.getUsername();
+        if (revokedTokens.isRevoked(authenticatedToken.id, login, authenticatedToken.issuedAt)) {
+            this.securityMetersService.trackTokenRevoked();
+            return Optional.empty();
+        }
+        return Optional.of(authenticatedToken.authentication(token));
+    }
+
     public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return new AuthenticatedToken(jwtParser.parseClaimsJws(token).getBody(), authorityRegistry).authentication(token);
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
+    public boolean validateToken(String authToken) {
+        return parseClaims(authToken).isPresent();
+    }
 
-        User principal = new User(claims.getSubject(), "", authorities);
+    /**
+     * Get the claims of a token, once its signature is checked.
+     *
+     * @param token the token.
+     * @return the claims, or empty if the token is not valid.
+     */
+    public Optional<Claims> getClaims(String token) {
+        return parseClaims(token);
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    /**
+     * Get the id of the refresh session a token was issued in.
+     *
+     * @param token the token.
+     * @return the session id, or empty if the token is not valid or was not issued in a session.
+     */
+    public Optional<String> getSessionId(String token) {
+        return parseClaims(token).map(claims -> claims.get(SESSION_ID_KEY, String.class));
     }
 
-    public boolean validateToken(String authToken) {
+    private Optional<Claims> parseClaims(String authToken) {
         try {
-            jwtParser.parseClaimsJws(authToken);
-
-            return true;
+            return Optional.of(jwtParser.parseClaimsJws(authToken).getBody());
         } catch (ExpiredJwtException e) {
             this.securityMetersService.trackTokenExpired();
 
@@ -121,6 +233,66 @@ public class TokenProvider {
             log.error("Token validation error {}", e.getMessage());
         }
 
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * The principal and authorities of a valid token.
+     */
+    private static final class AuthenticatedToken {
+
+        private final String id;
+
+        private final User principal;
+
+        private final long authorityMask;
+
+        private final AuthorityRegistry authorityRegistry;
+
+        private final Date issuedAt;
+
+        private final Date expiration;
+
+        private AuthenticatedToken(Claims claims, AuthorityRegistry authorityRegistry) {
+            this.id = claims.getId();
+            this.authorityRegistry = authorityRegistry;
+            this.authorityMask =
+                authorityRegistry.register(
+                    Arrays
+                        .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+                        .filter(auth -> !auth.trim().isEmpty())
+                        .collect(Collectors.toList())
+                );
+            this.principal = new User(claims.getSubject(), "", authorityRegistry.getAuthorities(authorityMask));
+            Long issuedAtMillis = claims.get(ISSUED_AT_MILLIS_KEY, Long.class);
+            this.issuedAt = issuedAtMillis != null ? new Date(issuedAtMillis) : claims.getIssuedAt();
+            this.expiration = claims.getExpiration();
+        }
+
+        private Authentication authentication(String token) {
+            return new AuthorityMaskAuthentication(principal, token, authorityMask, authorityRegistry);
+        }
+    }
+
+    /**
+     * Expires the cached tokens when the tokens themselves expire.
+     */
+    private static final class TokenExpiry implements Expiry<String, AuthenticatedToken> {
+
+        @Override
+        public long expireAfterCreate(String token, AuthenticatedToken authenticatedToken, long currentTime) {
+            long millis = authenticatedToken.expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, AuthenticatedToken authenticatedToken, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, authenticatedToken, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, AuthenticatedToken authenticatedToken, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
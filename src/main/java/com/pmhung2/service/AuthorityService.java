@@ -0,0 +1,116 @@
+package com.pmhung2.service;
+
+import com.pmhung2.domain.Authority;
+import com.pmhung2.repository.AuthorityRepository;
+import com.pmhung2.security.AuthorityRegistry;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service holding the authorities of the {@code jhi_authority} table in memory, so that they are looked up without
+ * any query.
+ * <p>
+ * The authorities are loaded once, at startup or when first used if the schema was not ready yet, into an immutable
+ * snapshot; they are also registered then in the {@link AuthorityRegistry} of the token authentication. The table is
+ * only written by the Liquibase changelogs, so the snapshot is never reloaded. The entities of the snapshot are
+ * detached and shared: they can be added to the authorities of a user, but must not be modified.
+ */
+@Service
+public class AuthorityService implements SmartInitializingSingleton {
+
+    private final Logger log = LoggerFactory.getLogger(AuthorityService.class);
+
+    private final AuthorityRepository authorityRepository;
+
+    private final AuthorityRegistry authorityRegistry;
+
+    private volatile Authorities authorities;
+
+    public AuthorityService(AuthorityRepository authorityRepository, AuthorityRegistry authorityRegistry) {
+        this.authorityRepository = authorityRepository;
+        this.authorityRegistry = authorityRegistry;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            load();
+        } catch (DataAccessException e) {
+            // The schema may still be being created by Liquibase, the authorities are then loaded when first used
+            log.warn("Could not load the authorities: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param name the name of an authority.
+     * @return the authority, if it exists.
+     */
+    public Optional<Authority> findByName(String name) {
+        return Optional.ofNullable(authorities().byName.get(name));
+    }
+
+    /**
+     * @param names the names of some authorities.
+     * @return a new set of the authorities that exist, the unknown names are ignored.
+     */
+    public Set<Authority> getAuthorities(Collection<String> names) {
+        Map<String, Authority> byName = authorities().byName;
+        Set<Authority> result = new HashSet<>();
+        for (String name : names) {
+            Authority authority = byName.get(name);
+            if (authority != null) {
+                result.add(authority);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the names of all the authorities.
+     */
+    public List<String> getAuthorityNames() {
+        return authorities().names;
+    }
+
+    private Authorities authorities() {
+        Authorities current = authorities;
+        if (current == null) {
+            load();
+            current = authorities;
+        }
+        return current;
+    }
+
+    private synchronized void load() {
+        if (authorities != null) {
+            return;
+        }
+        Authorities loaded = new Authorities(authorityRepository.findAll());
+        authorityRegistry.register(loaded.names);
+        authorities = loaded;
+        log.debug("Loaded authorities {}", loaded.names);
+    }
+
+    private static final class Authorities {
+
+        private final Map<String, Authority> byName;
+
+        private final List<String> names;
+
+        private Authorities(List<Authority> authorities) {
+            this.byName = authorities.stream().collect(Collectors.toUnmodifiableMap(Authority::getName, Function.identity()));
+            this.names = authorities.stream().map(Authority::getName).sorted().collect(Collectors.toUnmodifiableList());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.pmhung2.service;
+
+import com.pmhung2.service.dto.BulkItemResultDTO;
+import java.util.List;
+
+/**
+ * Thrown when a bulk request cannot be read to its end. The chunks read before were already committed, and are
+ * reported with the error.
+ */
+public class BulkAbortedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<BulkItemResultDTO> results;
+
+    public BulkAbortedException(String message, List<BulkItemResultDTO> results, Throwable cause) {
+        super(message, cause);
+        this.results = results;
+    }
+
+    /**
+     * @return the outcome of each item read before the error, in the order they were read.
+     */
+    public List<BulkItemResultDTO> getResults() {
+        return results;
+    }
+
+    /**
+     * @return the number of items created or updated before the error.
+     */
+    public long getCommitted() {
+        return results.stream().filter(result -> result.getStatus() != BulkItemResultDTO.Status.FAILED).count();
+    }
+}
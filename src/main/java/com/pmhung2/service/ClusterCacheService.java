@@ -0,0 +1,379 @@
+package com.pmhung2.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pmhung2.config.ApplicationProperties;
+import com.pmhung2.service.dto.CacheInvalidationDTO;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ObjectUtils;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service broadcasting cache evictions to the other instances of the cluster.
+ * <p>
+ * The instances are discovered through the {@link DiscoveryClient}, under the {@code application.cluster.service-id}
+ * service. Evictions requested within a transaction are sent in a single message once it is committed, so the other
+ * instances never reload a row before it is written; outside of a transaction they are sent at once. Messages are
+ * posted asynchronously and signed with a key derived from the JWT secret, which all the instances share. The signed
+ * message carries its id and issue date: a message older than {@code application.cluster.max-message-age}, or whose id
+ * was already received, is rejected, so that a captured message cannot be replayed.
+ * <p>
+ * A region is either a Hibernate entity region, a collection region, a Spring cache, or a region registered with
+ * {@link #registerRegion}. The local caches are evicted by Hibernate and by the caller, only the other instances are
+ * notified.
+ */
+@Service
+public class ClusterCacheService {
+
+    public static final String SIGNATURE_HEADER = "X-Cluster-Signature";
+
+    /**
+     * The path of the endpoint receiving the invalidations, relative to the context path.
+     */
+    public static final String INVALIDATION_PATH = "/api/cluster/cache-invalidations";
+
+    private static final String CONTEXT_PATH_METADATA = "context-path";
+
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+
+    private final Logger log = LoggerFactory.getLogger(ClusterCacheService.class);
+
+    private final DiscoveryClient discoveryClient;
+
+    private final String instanceId;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheManager cacheManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final String serviceId;
+
+    private final Duration timeout;
+
+    private final SecretKeySpec signingKey;
+
+    private final HttpClient httpClient;
+
+    private final Duration maxMessageAge;
+
+    /**
+     * The ids of the messages received, kept for as long as they would be accepted.
+     */
+    private final Map<String, Boolean> receivedMessageIds;
+
+    private final Map<String, Consumer<String>> regionEvictors = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ClusterCacheService(
+        DiscoveryClient discoveryClient,
+        ObjectProvider<Registration> registration,
+        EntityManagerFactory entityManagerFactory,
+        CacheManager cacheManager,
+        ObjectMapper objectMapper,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        this(
+            discoveryClient,
+            registration.stream().map(Registration::getInstanceId).findFirst().orElseGet(() -> UUID.randomUUID().toString()),
+            entityManagerFactory,
+            cacheManager,
+            objectMapper,
+            jHipsterProperties,
+            applicationProperties
+        );
+    }
+
+    public ClusterCacheService(
+        DiscoveryClient discoveryClient,
+        String instanceId,
+        EntityManagerFactory entityManagerFactory,
+        CacheManager cacheManager,
+        ObjectMapper objectMapper,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        this.discoveryClient = discoveryClient;
+        this.instanceId = instanceId;
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.serviceId = applicationProperties.getCluster().getServiceId();
+        this.timeout = applicationProperties.getCluster().getTimeout();
+        this.maxMessageAge = applicationProperties.getCluster().getMaxMessageAge();
+        // A message is accepted from its issue date minus the maximum age, until its issue date plus the maximum age
+        this.receivedMessageIds = Caffeine.newBuilder().expireAfterWrite(maxMessageAge.multipliedBy(2)).<String, Boolean>build().asMap();
+        this.signingKey = deriveSigningKey(jHipsterProperties.getSecurity().getAuthentication().getJwt());
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    /**
+     * Evict an entity from the caches of the other instances.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity.
+     */
+    public void evictEntity(Class<?> entityClass, Object id) {
+        evict(entityClass.getName(), id);
+    }
+
+    /**
+     * Evict a key of a cache region from the other instances.
+     *
+     * @param region the name of the entity, the role of the collection or the name of the cache.
+     * @param key the key to evict, or {@code null} to evict the whole region.
+     */
+    public void evict(String region, Object key) {
+        CacheInvalidationDTO.Eviction eviction = new CacheInvalidationDTO.Eviction(region, key == null ? null : key.toString());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingEvictions().add(eviction);
+        } else {
+            broadcast(List.of(eviction));
+        }
+    }
+
+    /**
+     * Register a region holding something else than a cache, evicted by the given function when another instance
+     * evicts it.
+     *
+     * @param region the name of the region.
+     * @param evictor the function evicting a key, called with {@code null} to evict the whole region.
+     */
+    public void registerRegion(String region, Consumer<String> evictor) {
+        regionEvictors.put(region, evictor);
+    }
+
+    /**
+     * Apply an invalidation message received from another instance.
+     *
+     * @param body the message, as sent.
+     * @param signature the signature of the message.
+     * @return {@code false} if the signature is not valid, or if the message is too old or was already received, in which
+     * case nothing is evicted.
+     * @throws IOException if the message could not be read.
+     */
+    public boolean receive(byte[] body, String signature) throws IOException {
+        if (signature == null || !isValidSignature(body, signature)) {
+            log.warn("Rejected a cache invalidation with an invalid signature");
+            return false;
+        }
+        CacheInvalidationDTO invalidation = objectMapper.readValue(body, CacheInvalidationDTO.class);
+        if (!isRecent(invalidation.getIssuedAt())) {
+            log.warn("Rejected cache invalidation {} issued at {}", invalidation.getId(), invalidation.getIssuedAt());
+            return false;
+        }
+        if (invalidation.getId() == null || receivedMessageIds.putIfAbsent(invalidation.getId(), Boolean.TRUE) != null) {
+            log.warn("Rejected cache invalidation {}, already received", invalidation.getId());
+            return false;
+        }
+        if (instanceId.equals(invalidation.getOrigin())) {
+            return true;
+        }
+        log.debug("Received cache invalidation from {}: {}", invalidation.getOrigin(), invalidation.getEvictions());
+        invalidation.getEvictions().forEach(this::evictLocally);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CacheInvalidationDTO.Eviction> pendingEvictions() {
+        Object resource = TransactionSynchronizationManager.getResource(this);
+        List<CacheInvalidationDTO.Eviction> pending = (List<CacheInvalidationDTO.Eviction>) resource;
+        if (pending == null) {
+            List<CacheInvalidationDTO.Eviction> evictions = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, evictions);
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        broadcast(evictions);
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(ClusterCacheService.this);
+                    }
+                }
+            );
+            pending = evictions;
+        }
+        return pending;
+    }
+
+    private void broadcast(List<CacheInvalidationDTO.Eviction> evictions) {
+        List<URI> peers = peers();
+        if (peers.isEmpty() || evictions.isEmpty()) {
+            return;
+        }
+        String id = UUID.randomUUID().toString();
+        CacheInvalidationDTO invalidation = new CacheInvalidationDTO(id, instanceId, Instant.now(), new ArrayList<>(evictions));
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(invalidation);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String signature = sign(body);
+        for (URI peer : peers) {
+            HttpRequest request = HttpRequest
+                .newBuilder(peer)
+                .timeout(timeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(SIGNATURE_HEADER, signature)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+            httpClient
+                .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.warn("Could not send cache invalidation to {}: {}", peer, error.getMessage());
+                    } else if (response.statusCode() >= 300) {
+                        log.warn("Cache invalidation rejected by {} with status {}", peer, response.statusCode());
+                    }
+                });
+        }
+        log.debug("Sent {} cache evictions to {} instances", evictions.size(), peers.size());
+    }
+
+    private List<URI> peers() {
+        return discoveryClient
+            .getInstances(serviceId)
+            .stream()
+            .filter(instance -> !Objects.equals(instanceId, instance.getInstanceId()))
+            .map(ClusterCacheService::invalidationUri)
+            .collect(Collectors.toList());
+    }
+
+    private static URI invalidationUri(ServiceInstance instance) {
+        String contextPath = instance.getMetadata().getOrDefault(CONTEXT_PATH_METADATA, "");
+        return URI.create(instance.getUri().toString() + contextPath + INVALIDATION_PATH);
+    }
+
+    private void evictLocally(CacheInvalidationDTO.Eviction eviction) {
+        String region = eviction.getRegion();
+        String key = eviction.getKey();
+        Consumer<String> evictor = regionEvictors.get(region);
+        if (evictor != null) {
+            evictor.accept(key);
+            return;
+        }
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        MetamodelImplementor metamodel = sessionFactory.getMetamodel();
+        CacheImplementor hibernateCache = sessionFactory.getCache();
+        EntityPersister entityPersister = metamodel.entityPersisters().get(region);
+        if (entityPersister != null) {
+            if (key == null) {
+                hibernateCache.evictEntityData(region);
+            } else {
+                hibernateCache.evictEntityData(region, toIdentifier(key, entityPersister.getIdentifierType().getReturnedClass()));
+            }
+            return;
+        }
+        CollectionPersister collectionPersister = metamodel.collectionPersisters().get(region);
+        if (collectionPersister != null) {
+            if (key == null) {
+                hibernateCache.evictCollectionData(region);
+            } else {
+                hibernateCache.evictCollectionData(region, toIdentifier(key, collectionPersister.getKeyType().getReturnedClass()));
+            }
+            return;
+        }
+        Cache cache = cacheManager.getCache(region);
+        if (cache == null) {
+            log.debug("Ignored the eviction of unknown cache region {}", region);
+        } else if (key == null) {
+            cache.clear();
+        } else {
+            cache.evict(key);
+        }
+    }
+
+    private static Serializable toIdentifier(String key, Class<?> type) {
+        if (Long.class.equals(type)) {
+            return Long.valueOf(key);
+        }
+        if (Integer.class.equals(type)) {
+            return Integer.valueOf(key);
+        }
+        return key;
+    }
+
+    private boolean isRecent(Instant issuedAt) {
+        if (issuedAt == null) {
+            return false;
+        }
+        Instant now = Instant.now();
+        return !issuedAt.isBefore(now.minus(maxMessageAge)) && !issuedAt.isAfter(now.plus(maxMessageAge));
+    }
+
+    private boolean isValidSignature(byte[] body, String signature) {
+        return MessageDigest.isEqual(sign(body).getBytes(StandardCharsets.US_ASCII), signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    String sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(signingKey);
+            return Base64.getEncoder().encodeToString(mac.doFinal(body));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static SecretKeySpec deriveSigningKey(JHipsterProperties.Security.Authentication.Jwt jwt) {
+        byte[] secret = ObjectUtils.isEmpty(jwt.getBase64Secret())
+            ? jwt.getSecret().getBytes(StandardCharsets.UTF_8)
+            : Base64.getDecoder().decode(jwt.getBase64Secret());
+        try {
+            // Do not sign with the JWT key itself, a signed invalidation must never be usable as a token signature
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, SIGNATURE_ALGORITHM));
+            return new SecretKeySpec(mac.doFinal("cluster-cache-invalidation".getBytes(StandardCharsets.UTF_8)), SIGNATURE_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.pmhung2.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pmhung2.domain.Income;
+import com.pmhung2.domain.Money;
+import com.pmhung2.repository.IncomeRepository;
+import com.pmhung2.repository.MoneyRepository;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for exporting whole entity tables.
+ * <p>
+ * Rows are read through a forward-only stream and written as soon as they are read, each entity is detached from the
+ * persistence context once written so that the memory used does not depend on the size of the table.
+ */
+@Service
+@Transactional(readOnly = true)
+public class EntityExportService {
+
+    /**
+     * The formats an export can be written in.
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Optional<Format> fromName(String name) {
+            return Arrays.stream(values()).filter(format -> format.name().equals(name.toUpperCase(Locale.ENGLISH))).findFirst();
+        }
+    }
+
+    private static final String[] ENTITY_CSV_HEADER = { "id", "name", "roll", "income" };
+
+    private final Logger log = LoggerFactory.getLogger(EntityExportService.class);
+
+    private final MoneyRepository moneyRepository;
+
+    private final IncomeRepository incomeRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    public EntityExportService(
+        MoneyRepository moneyRepository,
+        IncomeRepository incomeRepository,
+        EntityManager entityManager,
+        ObjectMapper objectMapper
+    ) {
+        this.moneyRepository = moneyRepository;
+        this.incomeRepository = incomeRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write all the monies to the given output stream.
+     *
+     * @param format the format to write the monies in.
+     * @param out the stream to write to, it is flushed but not closed.
+     * @return the number of monies written.
+     * @throws IOException if the output stream could not be written.
+     */
+    public long exportMonies(Format format, OutputStream out) throws IOException {
+        log.debug("Request to export all Monies as {}", format);
+        try (Stream<Money> monies = moneyRepository.streamAllByOrderById()) {
+            return export(
+                monies,
+                format,
+                out,
+                money -> new Object[] { money.getId(), money.getName(), money.getRoll(), money.getIncome() }
+            );
+        }
+    }
+
+    /**
+     * Write all the incomes to the given output stream.
+     *
+     * @param format the format to write the incomes in.
+     * @param out the stream to write to, it is flushed but not closed.
+     * @return the number of incomes written.
+     * @throws IOException if the output stream could not be written.
+     */
+    public long exportIncomes(Format format, OutputStream out) throws IOException {
+        log.debug("Request to export all Incomes as {}", format);
+        try (Stream<Income> incomes = incomeRepository.streamAllByOrderById()) {
+            return export(
+                incomes,
+                format,
+                out,
+                income -> new Object[] { income.getId(), income.getName(), income.getRoll(), income.getIncome() }
+            );
+        }
+    }
+
+    private <T> long export(Stream<T> rows, Format format, OutputStream out, Function<T, Object[]> csvColumns) throws IOException {
+        return format == Format.CSV ? exportCsv(rows, out, csvColumns) : exportNdjson(rows, out);
+    }
+
+    private <T> long exportNdjson(Stream<T> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (Iterator<T> iterator = rows.iterator(); iterator.hasNext();) {
+                T row = iterator.next();
+                writer.writeValue(generator, row);
+                generator.writeRaw('\n');
+                entityManager.detach(row);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private <T> long exportCsv(Stream<T> rows, OutputStream out, Function<T, Object[]> csvColumns) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvLine(writer, ENTITY_CSV_HEADER);
+        long count = 0;
+        for (Iterator<T> iterator = rows.iterator(); iterator.hasNext();) {
+            T row = iterator.next();
+            writeCsvLine(writer, csvColumns.apply(row));
+            entityManager.detach(row);
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] columns) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (columns[i] != null) {
+                writer.write(escapeCsv(columns[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,69 @@
+package com.pmhung2.service;
+
+import com.pmhung2.domain.Income;
+import com.pmhung2.domain.Money;
+import com.pmhung2.repository.IncomeRepository;
+import com.pmhung2.repository.MoneyRepository;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service providing estimates of the number of rows of entity tables.
+ * <p>
+ * An entity is counted the first time its estimate is requested, then recounted in the background every
+ * {@code application.pagination.count-estimate-refresh-interval}, so listings asking for an estimated total do not run
+ * a count query on each request. Entities whose estimate was never requested are never counted.
+ */
+@Service
+public class EstimatedCountService {
+
+    private final Logger log = LoggerFactory.getLogger(EstimatedCountService.class);
+
+    private final Map<Class<?>, LongSupplier> counters;
+
+    private final Map<Class<?>, AtomicLong> estimates = new ConcurrentHashMap<>();
+
+    public EstimatedCountService(MoneyRepository moneyRepository, IncomeRepository incomeRepository) {
+        this.counters = Map.of(Money.class, moneyRepository::count, Income.class, incomeRepository::count);
+    }
+
+    /**
+     * Get the estimated number of rows of an entity.
+     *
+     * @param entityClass the class of the entity.
+     * @return the number of rows of the entity at the last refresh.
+     */
+    public long estimateCount(Class<?> entityClass) {
+        return estimates.computeIfAbsent(entityClass, c -> new AtomicLong(counter(c).getAsLong())).get();
+    }
+
+    /**
+     * Recount the rows of the entities whose estimate was requested.
+     * <p>
+     * This is scheduled to run every {@code application.pagination.count-estimate-refresh-interval}.
+     */
+    @Scheduled(
+        initialDelayString = "${application.pagination.count-estimate-refresh-interval:PT1M}",
+        fixedDelayString = "${application.pagination.count-estimate-refresh-interval:PT1M}"
+    )
+    public void refreshEstimates() {
+        estimates.forEach((entityClass, estimate) -> {
+            estimate.set(counter(entityClass).getAsLong());
+            log.debug("Refreshed the estimated count of {}: {}", entityClass.getSimpleName(), estimate.get());
+        });
+    }
+
+    private LongSupplier counter(Class<?> entityClass) {
+        LongSupplier counter = counters.get(entityClass);
+        if (counter == null) {
+            throw new IllegalArgumentException("No count estimate for " + entityClass.getName());
+        }
+        return counter;
+    }
+}
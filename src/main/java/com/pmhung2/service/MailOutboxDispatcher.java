@@ -0,0 +1,246 @@
+package com.pmhung2.service;
+
+import com.pmhung2.config.ApplicationProperties;
+import com.pmhung2.domain.MailOutboxMessage;
+import com.pmhung2.repository.MailOutboxMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service sending the emails of the outbox.
+ * <p>
+ * The due emails are claimed in batches of {@code application.mail-outbox.batch-size}, each batch is sent over a single
+ * SMTP connection, at most {@code application.mail-outbox.max-per-second} emails per second. An email that could not be
+ * sent is retried with an exponential backoff, and marked as failed after {@code application.mail-outbox.max-attempts}
+ * attempts. A batch is claimed in a short transaction, which locks its rows, skipping the ones locked by the other
+ * instances, and marks them as being sent until the end of a lease of {@code application.mail-outbox.lease}. The emails
+ * are then sent outside of any transaction, without holding a connection to the database, and their outcome is written
+ * in a second transaction. Emails are sent at least once: the emails of an instance stopping before writing the outcome
+ * of a batch are claimed and sent again once their lease has expired.
+ */
+@Service
+public class MailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * The statuses of the emails that can be claimed once due: the pending ones, and the ones being sent whose lease
+     * has expired.
+     */
+    private static final Set<MailOutboxMessage.Status> CLAIMABLE = EnumSet.of(
+        MailOutboxMessage.Status.PENDING,
+        MailOutboxMessage.Status.SENDING
+    );
+
+    private final Logger log = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final JavaMailSender javaMailSender;
+
+    private final MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.MailOutbox properties;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Counter sentCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter failedCounter;
+
+    private final Timer batchTimer;
+
+    private long nextBatchNanos = System.nanoTime();
+
+    public MailOutboxDispatcher(
+        JHipsterProperties jHipsterProperties,
+        JavaMailSender javaMailSender,
+        MailOutboxMessageRepository mailOutboxMessageRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.jHipsterProperties = jHipsterProperties;
+        this.javaMailSender = javaMailSender;
+        this.mailOutboxMessageRepository = mailOutboxMessageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getMailOutbox();
+
+        Gauge.builder("mail.outbox.pending", pending, AtomicLong::get).description("Emails waiting to be sent").register(meterRegistry);
+        this.sentCounter = Counter.builder("mail.outbox.sent").description("Emails sent").register(meterRegistry);
+        this.retriedCounter = Counter.builder("mail.outbox.retried").description("Emails that will be retried").register(meterRegistry);
+        this.failedCounter =
+            Counter.builder("mail.outbox.failed").description("Emails given up after all their attempts").register(meterRegistry);
+        this.batchTimer = Timer.builder("mail.outbox.batch").description("Time to send a batch of emails").register(meterRegistry);
+    }
+
+    @Scheduled(
+        initialDelayString = "${application.mail-outbox.poll-interval:PT5S}",
+        fixedDelayString = "${application.mail-outbox.poll-interval:PT5S}"
+    )
+    public void scheduledDispatch() {
+        if (properties.isEnabled()) {
+            dispatch();
+        }
+    }
+
+    /**
+     * Send the due emails of the outbox, batch after batch, until none is left.
+     *
+     * @return the number of emails sent.
+     */
+    public synchronized int dispatch() {
+        int sent = 0;
+        int claimed;
+        do {
+            List<MailOutboxMessage> batch = transactionTemplate.execute(status -> claimBatch());
+            claimed = batch.size();
+            if (claimed > 0) {
+                sendBatch(batch);
+                transactionTemplate.executeWithoutResult(status -> mailOutboxMessageRepository.saveAll(batch));
+                sent += (int) batch.stream().filter(message -> message.getStatus() == MailOutboxMessage.Status.SENT).count();
+            }
+        } while (claimed == properties.getBatchSize());
+        pending.set(mailOutboxMessageRepository.countByStatusIn(CLAIMABLE));
+        if (sent > 0) {
+            log.debug("Sent {} emails of the outbox", sent);
+        }
+        return sent;
+    }
+
+    private List<MailOutboxMessage> claimBatch() {
+        Instant now = Instant.now();
+        List<MailOutboxMessage> batch = mailOutboxMessageRepository.findDueForUpdate(
+            CLAIMABLE,
+            now,
+            PageRequest.of(0, properties.getBatchSize())
+        );
+        Instant leaseEnd = now.plus(properties.getLease());
+        for (MailOutboxMessage message : batch) {
+            message.setStatus(MailOutboxMessage.Status.SENDING);
+            message.setNextAttemptAt(leaseEnd);
+        }
+        return batch;
+    }
+
+    private void sendBatch(List<MailOutboxMessage> batch) {
+        throttle(batch.size());
+
+        Map<MimeMessage, MailOutboxMessage> mimeMessages = new LinkedHashMap<>();
+        for (MailOutboxMessage message : batch) {
+            try {
+                mimeMessages.put(toMimeMessage(message), message);
+            } catch (MessagingException e) {
+                failed(message, e, Instant.now());
+            }
+        }
+        Map<Object, Exception> failures = Collections.emptyMap();
+        MailException batchFailure = null;
+        long start = System.nanoTime();
+        try {
+            javaMailSender.send(mimeMessages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            batchFailure = failures.isEmpty() ? e : null;
+        } catch (MailException e) {
+            batchFailure = e;
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        Instant now = Instant.now();
+        for (Map.Entry<MimeMessage, MailOutboxMessage> entry : mimeMessages.entrySet()) {
+            Exception failure = batchFailure != null ? batchFailure : failures.get(entry.getKey());
+            if (failure == null) {
+                sent(entry.getValue(), now);
+            } else {
+                failed(entry.getValue(), failure, now);
+            }
+        }
+    }
+
+    private MimeMessage toMimeMessage(MailOutboxMessage message) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, message.isMultipart(), StandardCharsets.UTF_8.name());
+        helper.setTo(message.getRecipient());
+        helper.setFrom(jHipsterProperties.getMail().getFrom());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getContent(), message.isHtml());
+        return mimeMessage;
+    }
+
+    private void sent(MailOutboxMessage message, Instant now) {
+        message.setStatus(MailOutboxMessage.Status.SENT);
+        message.setAttempts(message.getAttempts() + 1);
+        message.setSentDate(now);
+        message.setLastError(null);
+        sentCounter.increment();
+        log.debug("Sent email to '{}'", message.getRecipient());
+    }
+
+    private void failed(MailOutboxMessage message, Exception e, Instant now) {
+        message.setAttempts(message.getAttempts() + 1);
+        String error = String.valueOf(e.getMessage());
+        message.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        if (message.getAttempts() >= properties.getMaxAttempts()) {
+            message.setStatus(MailOutboxMessage.Status.FAILED);
+            failedCounter.increment();
+            log.warn("Email could not be sent to '{}' after {} attempts", message.getRecipient(), message.getAttempts(), e);
+        } else {
+            Duration backoff = properties.getRetryBackoff().multipliedBy(1L << Math.min(message.getAttempts() - 1, 16));
+            message.setStatus(MailOutboxMessage.Status.PENDING);
+            message.setNextAttemptAt(now.plus(backoff));
+            retriedCounter.increment();
+            log.debug("Email could not be sent to '{}', retrying in {}: {}", message.getRecipient(), backoff, error);
+        }
+    }
+
+    /**
+     * Wait until the given number of emails can be sent without exceeding the rate limit.
+     */
+    private void throttle(int emails) {
+        if (properties.getMaxPerSecond() <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long wait = nextBatchNanos - now;
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        nextBatchNanos = Math.max(now, nextBatchNanos) + TimeUnit.SECONDS.toNanos(emails) / properties.getMaxPerSecond();
+    }
+}
@@ -1,60 +1,77 @@
 package com.pmhung2.service;
 
+import com.pmhung2.config.Constants;
+import com.pmhung2.domain.MailOutboxMessage;
 import com.pmhung2.domain.User;
-import java.nio.charset.StandardCharsets;
+import com.pmhung2.repository.MailOutboxMessageRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
-import javax.mail.MessagingException;
-import javax.mail.internet.MimeMessage;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.MessageSource;
-import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import tech.jhipster.config.JHipsterProperties;
 
 /**
  * Service for sending emails.
  * <p>
- * We use the {@link Async} annotation to send emails asynchronously.
+ * Emails are not sent right away: they are written to the outbox, in the transaction of the change they are about, and
+ * sent later by the {@link MailOutboxDispatcher}. The templates of the emails are precompiled at startup, see
+ * {@link MailTemplateRenderer}.
  */
 @Service
+@Transactional
 public class MailService {
 
     private final Logger log = LoggerFactory.getLogger(MailService.class);
 
-    private static final String USER = "user";
+    private static final String ACTIVATION_TEMPLATE = "mail/activationEmail";
 
-    private static final String BASE_URL = "baseUrl";
+    private static final String CREATION_TEMPLATE = "mail/creationEmail";
 
-    private final JHipsterProperties jHipsterProperties;
+    private static final String PASSWORD_RESET_TEMPLATE = "mail/passwordResetEmail";
 
-    private final JavaMailSender javaMailSender;
+    private static final String ACTIVATION_TITLE = "email.activation.title";
 
-    private final MessageSource messageSource;
+    private static final String PASSWORD_RESET_TITLE = "email.reset.title";
 
-    private final SpringTemplateEngine templateEngine;
+    private final MailTemplateRenderer mailTemplateRenderer;
+
+    private final MailOutboxMessageRepository mailOutboxMessageRepository;
 
     public MailService(
         JHipsterProperties jHipsterProperties,
-        JavaMailSender javaMailSender,
         MessageSource messageSource,
-        SpringTemplateEngine templateEngine
+        SpringTemplateEngine templateEngine,
+        MailOutboxMessageRepository mailOutboxMessageRepository
     ) {
-        this.jHipsterProperties = jHipsterProperties;
-        this.javaMailSender = javaMailSender;
-        this.messageSource = messageSource;
-        this.templateEngine = templateEngine;
+        this.mailTemplateRenderer = new MailTemplateRenderer(templateEngine, messageSource, jHipsterProperties.getMail().getBaseUrl());
+        this.mailOutboxMessageRepository = mailOutboxMessageRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void precompileTemplates() {
+        Map<String, String> templates = new LinkedHashMap<>();
+        templates.put(ACTIVATION_TEMPLATE, ACTIVATION_TITLE);
+        templates.put(CREATION_TEMPLATE, ACTIVATION_TITLE);
+        templates.put(PASSWORD_RESET_TEMPLATE, PASSWORD_RESET_TITLE);
+        mailTemplateRenderer.precompile(templates, List.of(Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE)));
     }
 
-    @Async
     public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         log.debug(
-            "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
+            "Queue email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
             isMultipart,
             isHtml,
             to,
@@ -62,51 +79,67 @@ public class MailService {
             content
         );
 
-        // Prepare message using a Spring helper
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-        try {
-            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
-            message.setTo(to);
-            message.setFrom(jHipsterProperties.getMail().getFrom());
-            message.setSubject(subject);
-            message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
-            log.debug("Sent email to User '{}'", to);
-        } catch (MailException | MessagingException e) {
-            log.warn("Email could not be sent to user '{}'", to, e);
-        }
+        mailOutboxMessageRepository.save(newMessage(to, subject, content, isMultipart, isHtml, Instant.now()));
     }
 
-    @Async
     public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
         if (user.getEmail() == null) {
             log.debug("Email doesn't exist for user '{}'", user.getLogin());
             return;
         }
-        Locale locale = Locale.forLanguageTag(user.getLangKey());
-        Context context = new Context(locale);
-        context.setVariable(USER, user);
-        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
-        String content = templateEngine.process(templateName, context);
-        String subject = messageSource.getMessage(titleKey, null, locale);
-        sendEmail(user.getEmail(), subject, content, false, true);
+        MailTemplateRenderer.RenderedEmail email = mailTemplateRenderer.render(user, templateName, titleKey);
+        sendEmail(user.getEmail(), email.getSubject(), email.getContent(), false, true);
+    }
+
+    /**
+     * Send the same email to each of the given users, rendered in one pass and queued in one batch.
+     *
+     * @param users the users to send the email to, the ones without email are skipped.
+     * @param templateName the name of the template of the content.
+     * @param titleKey the message key of the subject.
+     */
+    public void sendEmailsFromTemplate(Collection<User> users, String templateName, String titleKey) {
+        List<User> recipients = new ArrayList<>(users.size());
+        for (User user : users) {
+            if (user.getEmail() == null) {
+                log.debug("Email doesn't exist for user '{}'", user.getLogin());
+            } else {
+                recipients.add(user);
+            }
+        }
+        Instant now = Instant.now();
+        List<MailOutboxMessage> messages = new ArrayList<>(recipients.size());
+        for (MailTemplateRenderer.RenderedEmail email : mailTemplateRenderer.renderAll(recipients, templateName, titleKey)) {
+            messages.add(newMessage(email.getUser().getEmail(), email.getSubject(), email.getContent(), false, true, now));
+        }
+        log.debug("Queue {} emails from template '{}'", messages.size(), templateName);
+        mailOutboxMessageRepository.saveAll(messages);
+    }
+
+    private MailOutboxMessage newMessage(String to, String subject, String content, boolean isMultipart, boolean isHtml, Instant now) {
+        MailOutboxMessage message = new MailOutboxMessage();
+        message.setRecipient(to);
+        message.setSubject(subject);
+        message.setContent(content);
+        message.setMultipart(isMultipart);
+        message.setHtml(isHtml);
+        message.setCreatedDate(now);
+        message.setNextAttemptAt(now);
+        return message;
     }
 
-    @Async
     public void sendActivationEmail(User user) {
         log.debug("Sending activation email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/activationEmail", "email.activation.title");
+        sendEmailFromTemplate(user, ACTIVATION_TEMPLATE, ACTIVATION_TITLE);
     }
 
-    @Async
     public void sendCreationEmail(User user) {
         log.debug("Sending creation email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
+        sendEmailFromTemplate(user, CREATION_TEMPLATE, ACTIVATION_TITLE);
     }
 
-    @Async
     public void sendPasswordResetMail(User user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
+        sendEmailFromTemplate(user, PASSWORD_RESET_TEMPLATE, PASSWORD_RESET_TITLE);
     }
 }
@@ -0,0 +1,170 @@
+package com.pmhung2.service;
+
+import com.pmhung2.domain.User;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.MessageSource;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+/**
+ * Renders the emails sent to users from their Thymeleaf templates.
+ * <p>
+ * The templates are parsed once and kept in the template cache of the engine, see
+ * {@link com.pmhung2.config.MailTemplateConfiguration}: rendering an email only evaluates the expressions of its user.
+ * The subjects are resolved once per title key and locale. Templates can be precompiled, so that the first emails do
+ * not pay for the parsing.
+ */
+public class MailTemplateRenderer {
+
+    private static final String USER = "user";
+
+    private static final String BASE_URL = "baseUrl";
+
+    private final Logger log = LoggerFactory.getLogger(MailTemplateRenderer.class);
+
+    private final ITemplateEngine templateEngine;
+
+    private final MessageSource messageSource;
+
+    private final String baseUrl;
+
+    private final Map<SubjectKey, String> subjects = new ConcurrentHashMap<>();
+
+    public MailTemplateRenderer(ITemplateEngine templateEngine, MessageSource messageSource, String baseUrl) {
+        this.templateEngine = templateEngine;
+        this.messageSource = messageSource;
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Parse the given templates, and resolve their subjects, in the given locales.
+     *
+     * @param templates the title keys of the subjects, by template name.
+     * @param locales the locales to resolve the subjects in.
+     */
+    public void precompile(Map<String, String> templates, Collection<Locale> locales) {
+        for (Locale locale : locales) {
+            Context context = newContext(locale);
+            context.setVariable(USER, new User());
+            for (Map.Entry<String, String> template : templates.entrySet()) {
+                templateEngine.process(template.getKey(), context);
+                subject(template.getValue(), locale);
+            }
+        }
+        log.debug("Precompiled email templates {} for locales {}", templates.keySet(), locales);
+    }
+
+    /**
+     * Render an email for the given user, in the language of the user.
+     *
+     * @param user the user to render the email for.
+     * @param templateName the name of the template of the content.
+     * @param titleKey the message key of the subject.
+     * @return the rendered email.
+     */
+    public RenderedEmail render(User user, String templateName, String titleKey) {
+        Locale locale = Locale.forLanguageTag(user.getLangKey());
+        Context context = newContext(locale);
+        context.setVariable(USER, user);
+        return new RenderedEmail(user, subject(titleKey, locale), templateEngine.process(templateName, context));
+    }
+
+    /**
+     * Render the same email for each of the given users, in the language of each user.
+     * <p>
+     * The subject and the context are shared by all the users of the same language.
+     *
+     * @param users the users to render the email for.
+     * @param templateName the name of the template of the content.
+     * @param titleKey the message key of the subject.
+     * @return the rendered emails, in the order of the users.
+     */
+    public List<RenderedEmail> renderAll(Collection<User> users, String templateName, String titleKey) {
+        List<RenderedEmail> emails = new ArrayList<>(users.size());
+        Map<String, Context> contexts = new HashMap<>();
+        for (User user : users) {
+            Context context = contexts.computeIfAbsent(user.getLangKey(), langKey -> newContext(Locale.forLanguageTag(langKey)));
+            context.setVariable(USER, user);
+            String subject = subject(titleKey, context.getLocale());
+            emails.add(new RenderedEmail(user, subject, templateEngine.process(templateName, context)));
+        }
+        return emails;
+    }
+
+    private Context newContext(Locale locale) {
+        Context context = new Context(locale);
+        context.setVariable(BASE_URL, baseUrl);
+        return context;
+    }
+
+    private String subject(String titleKey, Locale locale) {
+        return subjects.computeIfAbsent(new SubjectKey(titleKey, locale), key -> messageSource.getMessage(key.titleKey, null, key.locale));
+    }
+
+    /**
+     * An email rendered for a user.
+     */
+    public static final class RenderedEmail {
+
+        private final User user;
+
+        private final String subject;
+
+        private final String content;
+
+        private RenderedEmail(User user, String subject, String content) {
+            this.user = user;
+            this.subject = subject;
+            this.content = content;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getContent() {
+            return content;
+        }
+    }
+
+    private static final class SubjectKey {
+
+        private final String titleKey;
+
+        private final Locale locale;
+
+        private SubjectKey(String titleKey, Locale locale) {
+            this.titleKey = titleKey;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SubjectKey)) {
+                return false;
+            }
+            SubjectKey that = (SubjectKey) o;
+            return titleKey.equals(that.titleKey) && locale.equals(that.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * titleKey.hashCode() + locale.hashCode();
+        }
+    }
+}
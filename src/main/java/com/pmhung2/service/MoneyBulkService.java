@@ -0,0 +1,250 @@
+package com.pmhung2.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pmhung2.config.ApplicationProperties;
+import com.pmhung2.domain.Money;
+import com.pmhung2.service.dto.BulkItemResultDTO;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for creating and updating {@link Money} in bulk.
+ * <p>
+ * {@link Money} ids are generated by the database, so Hibernate cannot batch their inserts. This service writes the
+ * rows with JDBC batches instead, one transaction per chunk of {@code application.bulk.chunk-size} items. When a chunk
+ * fails, its items are retried one by one so that a single bad item only fails itself. As the updates bypass Hibernate,
+ * the updated monies are evicted from the second-level cache of every instance once their chunk is committed.
+ */
+@Service
+public class MoneyBulkService {
+
+    private static final String INSERT_SQL = "insert into money (name, roll, income) values (?, ?, ?)";
+
+    private static final String UPDATE_SQL = "update money set name = ?, roll = ?, income = ? where id = ?";
+
+    private final Logger log = LoggerFactory.getLogger(MoneyBulkService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ClusterCacheService clusterCacheService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final int chunkSize;
+
+    public MoneyBulkService(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        EntityManagerFactory entityManagerFactory,
+        ClusterCacheService clusterCacheService,
+        ObjectMapper objectMapper,
+        Validator validator,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.clusterCacheService = clusterCacheService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = Math.max(1, applicationProperties.getBulk().getChunkSize());
+    }
+
+    /**
+     * Create or update the monies read from the given stream.
+     * <p>
+     * The stream holds either a JSON array of monies or newline-delimited JSON monies. Monies without an id are
+     * created, the others are updated. Items are read and written chunk by chunk, so the whole request is never held
+     * in memory.
+     *
+     * @param in the stream to read the monies from.
+     * @return the outcome of each item, in the order they were read.
+     * @throws BulkAbortedException if the stream is not valid JSON, or ends too early: the items read before are
+     * written, and reported with the error.
+     * @throws IOException if the stream could not be read.
+     */
+    public List<BulkItemResultDTO> saveAll(InputStream in) throws IOException {
+        List<BulkItemResultDTO> results = new ArrayList<>();
+        List<Item> chunk = new ArrayList<>(chunkSize);
+        JsonProcessingException error = null;
+        try {
+            readAll(in, results, chunk);
+        } catch (JsonProcessingException e) {
+            // The items read before the error are still written, the earlier chunks are already committed
+            error = e;
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(writeChunk(chunk));
+        }
+        results.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        if (error != null) {
+            log.debug("Bulk save of Monies aborted after {} items: {}", results.size(), error.getOriginalMessage());
+            throw new BulkAbortedException(error.getOriginalMessage(), results, error);
+        }
+        log.debug("Bulk saved {} Monies", results.size());
+        return results;
+    }
+
+    private void readAll(InputStream in, List<BulkItemResultDTO> results, List<Item> chunk) throws IOException {
+        int index = 0;
+        try (MappingIterator<Money> iterator = objectMapper.readerFor(Money.class).readValues(in)) {
+            while (iterator.hasNextValue()) {
+                int itemIndex = index++;
+                Money money;
+                try {
+                    money = iterator.nextValue();
+                } catch (JsonMappingException e) {
+                    results.add(BulkItemResultDTO.failed(itemIndex, null, e.getOriginalMessage()));
+                    continue;
+                }
+                String violations = validate(money);
+                if (violations != null) {
+                    results.add(BulkItemResultDTO.failed(itemIndex, money.getId(), violations));
+                    continue;
+                }
+                chunk.add(new Item(itemIndex, money));
+                if (chunk.size() == chunkSize) {
+                    results.addAll(writeChunk(chunk));
+                    chunk.clear();
+                }
+            }
+        }
+    }
+
+    private String validate(Money money) {
+        Set<ConstraintViolation<Money>> violations = validator.validate(money);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(v -> v.getPropertyPath() + " " + v.getMessage()).sorted().collect(Collectors.joining(", "));
+    }
+
+    private List<BulkItemResultDTO> writeChunk(List<Item> chunk) {
+        try {
+            List<BulkItemResultDTO> results = transactionTemplate.execute(status -> write(chunk));
+            for (BulkItemResultDTO result : results) {
+                if (result.getStatus() == BulkItemResultDTO.Status.UPDATED) {
+                    entityManagerFactory.getCache().evict(Money.class, result.getId());
+                    clusterCacheService.evictEntity(Money.class, result.getId());
+                }
+            }
+            return results;
+        } catch (DataAccessException e) {
+            if (chunk.size() == 1) {
+                Item item = chunk.get(0);
+                String error = e.getMostSpecificCause().getMessage();
+                return Collections.singletonList(BulkItemResultDTO.failed(item.index, item.requestedId, error));
+            }
+            log.debug("Bulk chunk of {} Monies failed, retrying them one by one: {}", chunk.size(), e.getMessage());
+            List<BulkItemResultDTO> results = new ArrayList<>(chunk.size());
+            for (Item item : chunk) {
+                item.money.setId(item.requestedId);
+                results.addAll(writeChunk(Collections.singletonList(item)));
+            }
+            return results;
+        }
+    }
+
+    private List<BulkItemResultDTO> write(List<Item> chunk) {
+        List<Item> inserts = chunk.stream().filter(item -> item.requestedId == null).collect(Collectors.toList());
+        List<Item> updates = chunk.stream().filter(item -> item.requestedId != null).collect(Collectors.toList());
+        List<BulkItemResultDTO> results = new ArrayList<>(chunk.size());
+        if (!inserts.isEmpty()) {
+            insert(inserts);
+            for (Item item : inserts) {
+                results.add(new BulkItemResultDTO(item.index, item.money.getId(), BulkItemResultDTO.Status.CREATED, null));
+            }
+        }
+        if (!updates.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(
+                UPDATE_SQL,
+                updates
+                    .stream()
+                    .map(item -> new Object[] { item.money.getName(), item.money.getRoll(), item.money.getIncome(), item.money.getId() })
+                    .collect(Collectors.toList()),
+                new int[] { Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.BIGINT }
+            );
+            for (int i = 0; i < updates.size(); i++) {
+                Item item = updates.get(i);
+                if (counts[i] == 0) {
+                    results.add(BulkItemResultDTO.failed(item.index, item.requestedId, "Entity not found"));
+                } else {
+                    results.add(new BulkItemResultDTO(item.index, item.requestedId, BulkItemResultDTO.Status.UPDATED, null));
+                }
+            }
+        }
+        return results;
+    }
+
+    private void insert(List<Item> inserts) {
+        jdbcTemplate.execute(
+            (ConnectionCallback<Void>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Item item : inserts) {
+                        if (item.money.getName() == null) {
+                            statement.setNull(1, Types.VARCHAR);
+                        } else {
+                            statement.setString(1, item.money.getName());
+                        }
+                        statement.setString(2, item.money.getRoll());
+                        statement.setInt(3, item.money.getIncome());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (Item item : inserts) {
+                            if (keys.next()) {
+                                item.money.setId(keys.getLong(1));
+                            }
+                        }
+                    }
+                }
+                return null;
+            }
+        );
+    }
+
+    private static final class Item {
+
+        private final int index;
+
+        private final Long requestedId;
+
+        private final Money money;
+
+        private Item(int index, Money money) {
+            this.index = index;
+            this.requestedId = money.getId();
+            this.money = money;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.pmhung2.service;
+
+import com.pmhung2.repository.MoneyRepository;
+import com.pmhung2.service.dto.MoneyIncomeStatsDTO;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service computing income statistics of {@link com.pmhung2.domain.Money} in the database.
+ * <p>
+ * The aggregates of all the rolls are read with a single grouped query. Percentiles use the nearest-rank
+ * method: the incomes of all the rolls are ranked by a second query in the database, which only returns the incomes
+ * at the requested ranks, so no entity is loaded.
+ */
+@Service
+@Transactional(readOnly = true)
+public class MoneyStatsService {
+
+    private final Logger log = LoggerFactory.getLogger(MoneyStatsService.class);
+
+    private final MoneyRepository moneyRepository;
+
+    public MoneyStatsService(MoneyRepository moneyRepository) {
+        this.moneyRepository = moneyRepository;
+    }
+
+    /**
+     * Get the income statistics of the monies, grouped by roll.
+     *
+     * @param percentiles the percentiles to compute, each in the {@code (0, 100]} range.
+     * @return the statistics of each roll, ordered by roll.
+     */
+    public List<MoneyIncomeStatsDTO> getIncomeStatsByRoll(List<Double> percentiles) {
+        log.debug("Request to get income statistics by roll, percentiles : {}", percentiles);
+        Map<String, Integer[]> incomesAtPercentiles = new HashMap<>();
+        for (Object[] row : moneyRepository.findIncomesAtPercentilesByRoll(percentiles)) {
+            Integer[] incomes = incomesAtPercentiles.computeIfAbsent((String) row[1], roll -> new Integer[percentiles.size()]);
+            incomes[((Number) row[0]).intValue()] = ((Number) row[2]).intValue();
+        }
+        return moneyRepository
+            .findIncomeStatsGroupedByRoll()
+            .stream()
+            .map(stats -> {
+                MoneyIncomeStatsDTO dto = new MoneyIncomeStatsDTO(
+                    stats.getRoll(),
+                    stats.getIncomeCount(),
+                    stats.getIncomeTotal(),
+                    stats.getMinIncome(),
+                    stats.getMaxIncome(),
+                    stats.getAverageIncome()
+                );
+                Integer[] incomes = incomesAtPercentiles.get(stats.getRoll());
+                for (int i = 0; i < percentiles.size(); i++) {
+                    Integer income = incomes != null ? incomes[i] : null;
+                    dto.getPercentiles().put(percentileKey(percentiles.get(i)), income != null ? income : stats.getMaxIncome());
+                }
+                return dto;
+            })
+            .collect(Collectors.toList());
+    }
+
+    private static String percentileKey(double percentile) {
+        return BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,216 @@
+package com.pmhung2.service;
+
+import com.pmhung2.config.ApplicationProperties;
+import com.pmhung2.domain.RefreshToken;
+import com.pmhung2.domain.User;
+import com.pmhung2.repository.RefreshTokenRepository;
+import com.pmhung2.repository.UserRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service issuing and rotating the refresh tokens.
+ * <p>
+ * A refresh token is the random id of its session and a random secret, {@code <session id>.<secret>}: using it costs
+ * a unique key lookup and a SHA-256, instead of the user lookup and the password hashing of a login. Each use replaces
+ * the secret of the session, and presenting the secret just replaced, which means that the token was stolen or
+ * replayed, revokes the session. Any other secret is rejected, without touching the session: the session ids cannot be
+ * guessed, but a wrong secret must not let anybody log a user out either.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final int SECRET_BYTES = 32;
+
+    private static final int SESSION_ID_BYTES = 16;
+
+    private static final char SEPARATOR = '.';
+
+    private final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserRepository userRepository;
+
+    private final ApplicationProperties.RefreshToken properties;
+
+    public RefreshTokenService(
+        RefreshTokenRepository refreshTokenRepository,
+        UserRepository userRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.properties = applicationProperties.getRefreshToken();
+    }
+
+    /**
+     * Open a session for a user who just logged in.
+     *
+     * @param login the login of the user.
+     * @param rememberMe whether the session is remembered.
+     * @return the refresh token of the session.
+     */
+    public String createToken(String login, boolean rememberMe) {
+        User user = userRepository
+            .findOneWithAuthoritiesByLogin(login)
+            .orElseThrow(() -> new IllegalStateException("User " + login + " not found"));
+        Instant now = Instant.now();
+        String secret = random(SECRET_BYTES);
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setSessionId(random(SESSION_ID_BYTES));
+        refreshToken.setUser(userRepository.getById(user.getId()));
+        refreshToken.setRememberMe(rememberMe);
+        refreshToken.setTokenHash(hash(secret));
+        refreshToken.setCreatedDate(now);
+        refreshToken.setExpiresAt(expiresAt(now, rememberMe));
+        refreshTokenRepository.save(refreshToken);
+        return token(refreshToken, secret);
+    }
+
+    /**
+     * Use a refresh token, and replace it with a new one.
+     *
+     * @param token the refresh token.
+     * @return the new refresh token and the user of the session, or empty if the token is not valid, has expired, or
+     * its user is no longer activated.
+     */
+    public Optional<RefreshedToken> refreshToken(String token) {
+        int separator = token.indexOf(SEPARATOR);
+        if (separator < 1) {
+            return Optional.empty();
+        }
+        Optional<RefreshToken> found = refreshTokenRepository.findOneForUpdateBySessionId(token.substring(0, separator));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        RefreshToken refreshToken = found.get();
+        Instant now = Instant.now();
+        byte[] hash = hash(token.substring(separator + 1));
+        if (!MessageDigest.isEqual(refreshToken.getTokenHash(), hash)) {
+            if (refreshToken.getPreviousTokenHash() != null && MessageDigest.isEqual(refreshToken.getPreviousTokenHash(), hash)) {
+                log.warn("Refresh token of {} reused after its rotation, revoking the session", refreshToken.getUser().getLogin());
+                refreshTokenRepository.delete(refreshToken);
+            }
+            return Optional.empty();
+        }
+        if (refreshToken.getExpiresAt().isBefore(now)) {
+            refreshTokenRepository.delete(refreshToken);
+            return Optional.empty();
+        }
+        Optional<User> user = userRepository.findOneWithAuthoritiesByLogin(refreshToken.getUser().getLogin()).filter(User::isActivated);
+        if (user.isEmpty()) {
+            refreshTokenRepository.delete(refreshToken);
+            return Optional.empty();
+        }
+        String secret = random(SECRET_BYTES);
+        refreshToken.setPreviousTokenHash(refreshToken.getTokenHash());
+        refreshToken.setTokenHash(hash(secret));
+        refreshToken.setExpiresAt(expiresAt(now, refreshToken.isRememberMe()));
+        return Optional.of(new RefreshedToken(token(refreshToken, secret), user.get(), refreshToken.isRememberMe()));
+    }
+
+    /**
+     * Revoke a session, when its user logs out.
+     *
+     * @param sessionId the id of the session.
+     */
+    public void revokeSession(String sessionId) {
+        int revoked = refreshTokenRepository.deleteBySessionId(sessionId);
+        log.debug("Revoked {} refresh token of session {}", revoked, sessionId);
+    }
+
+    /**
+     * Revoke all the sessions of a user.
+     *
+     * @param user the user.
+     */
+    public void revokeTokens(User user) {
+        int revoked = refreshTokenRepository.deleteByUser(user);
+        log.debug("Revoked {} refresh tokens of {}", revoked, user.getLogin());
+    }
+
+    /**
+     * Expired refresh tokens should be removed.
+     * <p>
+     * This is scheduled to get fired everyday, at 01:30 (am).
+     */
+    @Scheduled(cron = "0 30 1 * * ?")
+    public void removeExpiredTokens() {
+        int removed = refreshTokenRepository.deleteExpired(Instant.now());
+        log.debug("Removed {} expired refresh tokens", removed);
+    }
+
+    /**
+     * @param token a refresh token issued by this service.
+     * @return the id of the session of the token.
+     */
+    public static String sessionId(String token) {
+        return token.substring(0, token.indexOf(SEPARATOR));
+    }
+
+    private Instant expiresAt(Instant now, boolean rememberMe) {
+        return now.plus(rememberMe ? properties.getTokenValidityForRememberMe() : properties.getTokenValidity());
+    }
+
+    private static String token(RefreshToken refreshToken, String secret) {
+        return refreshToken.getSessionId() + SEPARATOR + secret;
+    }
+
+    private String random(int length) {
+        byte[] bytes = new byte[length];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static byte[] hash(String secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A refresh token issued in place of the one used, with the user of its session.
+     */
+    public static class RefreshedToken {
+
+        private final String token;
+
+        private final User user;
+
+        private final boolean rememberMe;
+
+        RefreshedToken(String token, User user, boolean rememberMe) {
+            this.token = token;
+            this.user = user;
+            this.rememberMe = rememberMe;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public boolean isRememberMe() {
+            return rememberMe;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.pmhung2.service;
+
+import com.pmhung2.domain.RevokedToken;
+import com.pmhung2.repository.RevokedTokenRepository;
+import com.pmhung2.security.jwt.RevokedTokens;
+import com.pmhung2.security.jwt.TokenProvider;
+import io.jsonwebtoken.Claims;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service revoking access tokens before they expire.
+ * <p>
+ * The revocations are stored in the database and held in memory by {@link RevokedTokens}, which is checked on each
+ * request: the requests with tokens that are not revoked make no I/O. A revocation is sent to the other instances of
+ * the cluster through the {@link ClusterCacheService}, as an eviction of the {@value #REVOKED_TOKENS_REGION} region
+ * whose key is the id of the revocation; each instance also reloads all the revocations every
+ * {@code application.token-revocation.reload-interval}, in case a message was lost.
+ */
+@Service
+@Transactional
+public class TokenRevocationService implements SmartInitializingSingleton {
+
+    public static final String REVOKED_TOKENS_REGION = "revokedTokens";
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final RevokedTokens revokedTokens;
+
+    private final TokenProvider tokenProvider;
+
+    private final ClusterCacheService clusterCacheService;
+
+    /**
+     * The longest validity of a token, for which the revocations of all the tokens of a user are kept.
+     */
+    private final Duration maxTokenValidity;
+
+    public TokenRevocationService(
+        RevokedTokenRepository revokedTokenRepository,
+        RevokedTokens revokedTokens,
+        TokenProvider tokenProvider,
+        ClusterCacheService clusterCacheService,
+        JHipsterProperties jHipsterProperties
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.revokedTokens = revokedTokens;
+        this.tokenProvider = tokenProvider;
+        this.clusterCacheService = clusterCacheService;
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        this.maxTokenValidity = Duration.ofSeconds(Math.max(jwt.getTokenValidityInSeconds(), jwt.getTokenValidityInSecondsForRememberMe()));
+        clusterCacheService.registerRegion(REVOKED_TOKENS_REGION, this::receive);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void afterSingletonsInstantiated() {
+        try {
+            reload();
+        } catch (DataAccessException e) {
+            // The schema may still be being updated by Liquibase, the next reload will load them
+            log.warn("Could not load the revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Revoke an access token.
+     *
+     * @param token the token.
+     * @return whether the token was revoked, a token that is not valid or that has no id cannot be.
+     */
+    public boolean revokeToken(String token) {
+        Optional<Claims> claims = tokenProvider.getClaims(token);
+        if (claims.isEmpty() || claims.get().getId() == null) {
+            return false;
+        }
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(claims.get().getId());
+        revokedToken.setRevokedDate(Instant.now());
+        revokedToken.setExpiresAt(claims.get().getExpiration().toInstant());
+        save(revokedToken);
+        log.debug("Revoked token {} of {}", revokedToken.getTokenId(), claims.get().getSubject());
+        return true;
+    }
+
+    /**
+     * Revoke all the access tokens of a user issued until now.
+     *
+     * @param login the login of the user.
+     */
+    public void revokeTokens(String login) {
+        Instant now = Instant.now();
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setLogin(login);
+        revokedToken.setRevokedDate(now);
+        revokedToken.setExpiresAt(now.plus(maxTokenValidity));
+        save(revokedToken);
+        log.debug("Revoked the tokens of {}", login);
+    }
+
+    /**
+     * Load the revocations that have not expired, and forget the ones that have.
+     */
+    @Scheduled(
+        initialDelayString = "${application.token-revocation.reload-interval:PT1M}",
+        fixedDelayString = "${application.token-revocation.reload-interval:PT1M}"
+    )
+    @Transactional(readOnly = true)
+    public void reload() {
+        Instant now = Instant.now();
+        revokedTokenRepository.findAllByExpiresAtAfter(now).forEach(this::apply);
+        revokedTokens.removeExpired(now);
+    }
+
+    /**
+     * Expired revocations should be removed.
+     * <p>
+     * This is scheduled to get fired everyday, at 01:45 (am).
+     */
+    @Scheduled(cron = "0 45 1 * * ?")
+    public void removeExpiredRevocations() {
+        int removed = revokedTokenRepository.deleteExpired(Instant.now());
+        log.debug("Removed {} expired token revocations", removed);
+    }
+
+    private void save(RevokedToken revokedToken) {
+        revokedTokenRepository.save(revokedToken);
+        // Revoked locally at once, even if the transaction is rolled back: a token is never left valid by mistake
+        apply(revokedToken);
+        clusterCacheService.evict(REVOKED_TOKENS_REGION, revokedToken.getId());
+    }
+
+    private void receive(String id) {
+        if (id == null) {
+            reload();
+        } else {
+            revokedTokenRepository.findById(Long.valueOf(id)).ifPresent(this::apply);
+        }
+    }
+
+    private void apply(RevokedToken revokedToken) {
+        if (revokedToken.getTokenId() != null) {
+            revokedTokens.revokeToken(revokedToken.getTokenId(), revokedToken.getExpiresAt());
+        } else {
+            revokedTokens.revokeTokens(revokedToken.getLogin(), revokedToken.getRevokedDate(), revokedToken.getExpiresAt());
+        }
+    }
+}
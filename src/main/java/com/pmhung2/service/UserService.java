@@ -3,7 +3,6 @@ package com.pmhung2.service;
 import com.pmhung2.config.Constants;
 import com.pmhung2.domain.Authority;
 import com.pmhung2.domain.User;
-import com.pmhung2.repository.AuthorityRepository;
 import com.pmhung2.repository.UserRepository;
 import com.pmhung2.security.AuthoritiesConstants;
 import com.pmhung2.security.SecurityUtils;
@@ -12,11 +11,13 @@ import com.pmhung2.service.dto.UserDTO;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -25,6 +26,8 @@ import tech.jhipster.security.RandomUtil;
 
 /**
  * Service class for managing users.
+ * <p>
+ * The emails about a user are written to the outbox by the {@link MailService} in the transaction changing the user.
  */
 @Service
 @Transactional
@@ -36,12 +39,36 @@ public class UserService {
 
     private final PasswordEncoder passwordEncoder;
 
-    private final AuthorityRepository authorityRepository;
+    private final AuthorityService authorityService;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final CacheManager cacheManager;
+
+    private final ClusterCacheService clusterCacheService;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final MailService mailService;
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        AuthorityService authorityService,
+        CacheManager cacheManager,
+        ClusterCacheService clusterCacheService,
+        RefreshTokenService refreshTokenService,
+        TokenRevocationService tokenRevocationService,
+        MailService mailService
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authorityRepository = authorityRepository;
+        this.authorityService = authorityService;
+        this.cacheManager = cacheManager;
+        this.clusterCacheService = clusterCacheService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.mailService = mailService;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -52,6 +79,7 @@ public class UserService {
                 // activate given user for the registration key.
                 user.setActivated(true);
                 user.setActivationKey(null);
+                this.clearUserCaches(user);
                 log.debug("Activated user: {}", user);
                 return user;
             });
@@ -66,6 +94,9 @@ public class UserService {
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
                 user.setResetDate(null);
+                this.clearUserCaches(user);
+                refreshTokenService.revokeTokens(user);
+                tokenRevocationService.revokeTokens(user.getLogin());
                 return user;
             });
     }
@@ -77,6 +108,8 @@ public class UserService {
             .map(user -> {
                 user.setResetKey(RandomUtil.generateResetKey());
                 user.setResetDate(Instant.now());
+                this.clearUserCaches(user);
+                mailService.sendPasswordResetMail(user);
                 return user;
             });
     }
@@ -115,9 +148,11 @@ public class UserService {
         // new user gets registration key
         newUser.setActivationKey(RandomUtil.generateActivationKey());
         Set<Authority> authorities = new HashSet<>();
-        authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
+        authorityService.findByName(AuthoritiesConstants.USER).ifPresent(authorities::add);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
+        this.clearUserCaches(newUser);
+        mailService.sendActivationEmail(newUser);
         log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
@@ -128,6 +163,7 @@ public class UserService {
         }
         userRepository.delete(existingUser);
         userRepository.flush();
+        this.clearUserCaches(existingUser);
         return true;
     }
 
@@ -151,16 +187,11 @@ public class UserService {
         user.setResetDate(Instant.now());
         user.setActivated(true);
         if (userDTO.getAuthorities() != null) {
-            Set<Authority> authorities = userDTO
-                .getAuthorities()
-                .stream()
-                .map(authorityRepository::findById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toSet());
-            user.setAuthorities(authorities);
+            user.setAuthorities(authorityService.getAuthorities(userDTO.getAuthorities()));
         }
         userRepository.save(user);
+        this.clearUserCaches(user);
+        mailService.sendCreationEmail(user);
         log.debug("Created Information for User: {}", user);
         return user;
     }
@@ -177,6 +208,11 @@ public class UserService {
             .filter(Optional::isPresent)
             .map(Optional::get)
             .map(user -> {
+                // Evict the previous login and email, the new ones are evicted once changed
+                this.clearUserCaches(user);
+                if (user.isActivated() && !userDTO.isActivated()) {
+                    tokenRevocationService.revokeTokens(user.getLogin());
+                }
                 user.setLogin(userDTO.getLogin().toLowerCase());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -188,13 +224,8 @@ public class UserService {
                 user.setLangKey(userDTO.getLangKey());
                 Set<Authority> managedAuthorities = user.getAuthorities();
                 managedAuthorities.clear();
-                userDTO
-                    .getAuthorities()
-                    .stream()
-                    .map(authorityRepository::findById)
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
-                    .forEach(managedAuthorities::add);
+                managedAuthorities.addAll(authorityService.getAuthorities(userDTO.getAuthorities()));
+                this.clearUserCaches(user);
                 log.debug("Changed Information for User: {}", user);
                 return user;
             })
@@ -206,6 +237,8 @@ public class UserService {
             .findOneByLogin(login)
             .ifPresent(user -> {
                 userRepository.delete(user);
+                this.clearUserCaches(user);
+                tokenRevocationService.revokeTokens(user.getLogin());
                 log.debug("Deleted User: {}", user);
             });
     }
@@ -224,6 +257,7 @@ public class UserService {
             .getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
             .ifPresent(user -> {
+                this.clearUserCaches(user);
                 user.setFirstName(firstName);
                 user.setLastName(lastName);
                 if (email != null) {
@@ -231,6 +265,7 @@ public class UserService {
                 }
                 user.setLangKey(langKey);
                 user.setImageUrl(imageUrl);
+                this.clearUserCaches(user);
                 log.debug("Changed Information for User: {}", user);
             });
     }
@@ -247,6 +282,9 @@ public class UserService {
                 }
                 String encryptedPassword = passwordEncoder.encode(newPassword);
                 user.setPassword(encryptedPassword);
+                this.clearUserCaches(user);
+                refreshTokenService.revokeTokens(user);
+                tokenRevocationService.revokeTokens(user.getLogin());
                 log.debug("Changed password for User: {}", user);
             });
     }
@@ -256,11 +294,21 @@ public class UserService {
         return userRepository.findAll(pageable).map(AdminUserDTO::new);
     }
 
+    @Transactional(readOnly = true)
+    public Slice<AdminUserDTO> getAllManagedUsersAfter(Long id, Pageable pageable) {
+        return userRepository.findAllByIdGreaterThan(id, pageable).map(AdminUserDTO::new);
+    }
+
     @Transactional(readOnly = true)
     public Page<UserDTO> getAllPublicUsers(Pageable pageable) {
         return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
     }
 
+    @Transactional(readOnly = true)
+    public Slice<UserDTO> getAllPublicUsersAfter(Long id, Pageable pageable) {
+        return userRepository.findAllByIdGreaterThanAndActivatedIsTrue(id, pageable).map(UserDTO::new);
+    }
+
     @Transactional(readOnly = true)
     public Optional<User> getUserWithAuthoritiesByLogin(String login) {
         return userRepository.findOneWithAuthoritiesByLogin(login);
@@ -283,15 +331,26 @@ public class UserService {
             .forEach(user -> {
                 log.debug("Deleting not activated user {}", user.getLogin());
                 userRepository.delete(user);
+                this.clearUserCaches(user);
             });
     }
 
     /**
-     * Gets a list of all the authorities.
-     * @return a list of all the authorities.
+     * Evict a user from the caches, once the transaction is committed: evicted before, the user could be cached again
+     * with its previous state by a concurrent login. The other instances are notified after the commit as well.
      */
-    @Transactional(readOnly = true)
-    public List<String> getAuthorities() {
-        return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
+    private void clearUserCaches(User user) {
+        evictAfterCommit(UserRepository.USERS_BY_LOGIN_CACHE, user.getLogin());
+        clusterCacheService.evict(UserRepository.USERS_BY_LOGIN_CACHE, user.getLogin());
+        if (user.getEmail() != null) {
+            evictAfterCommit(UserRepository.USERS_BY_EMAIL_CACHE, user.getEmail());
+            clusterCacheService.evict(UserRepository.USERS_BY_EMAIL_CACHE, user.getEmail());
+        }
+        clusterCacheService.evictEntity(User.class, user.getId());
+        clusterCacheService.evict(User.class.getName() + ".authorities", user.getId());
+    }
+
+    private void evictAfterCommit(String cacheName, String key) {
+        new TransactionAwareCacheDecorator(Objects.requireNonNull(cacheManager.getCache(cacheName))).evict(key);
     }
 }
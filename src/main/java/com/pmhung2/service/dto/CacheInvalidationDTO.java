@@ -0,0 +1,117 @@
+package com.pmhung2.service.dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing a batch of cache evictions broadcast to the other instances of the cluster.
+ */
+public class CacheInvalidationDTO {
+
+    private String id;
+
+    private String origin;
+
+    private Instant issuedAt;
+
+    private List<Eviction> evictions = new ArrayList<>();
+
+    public CacheInvalidationDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CacheInvalidationDTO(String id, String origin, Instant issuedAt, List<Eviction> evictions) {
+        this.id = id;
+        this.origin = origin;
+        this.issuedAt = issuedAt;
+        this.evictions = evictions;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public void setIssuedAt(Instant issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+
+    public List<Eviction> getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(List<Eviction> evictions) {
+        this.evictions = evictions;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CacheInvalidationDTO{" +
+            "id='" + id + '\'' +
+            ", origin='" + origin + '\'' +
+            ", issuedAt='" + issuedAt + "'" +
+            ", evictions=" + evictions +
+            "}";
+    }
+
+    /**
+     * The eviction of a key of a cache region, or of the whole region when the key is {@code null}.
+     */
+    public static class Eviction {
+
+        private String region;
+
+        private String key;
+
+        public Eviction() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public Eviction(String region, String key) {
+            this.region = region;
+            this.key = key;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Eviction{" +
+                "region='" + region + '\'' +
+                ", key='" + key + '\'' +
+                "}";
+        }
+    }
+}
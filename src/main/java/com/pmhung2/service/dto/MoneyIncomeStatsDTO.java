@@ -0,0 +1,107 @@
+package com.pmhung2.service.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A DTO representing the income statistics of the monies of a single roll.
+ */
+public class MoneyIncomeStatsDTO {
+
+    private String roll;
+
+    private Long count;
+
+    private Long total;
+
+    private Integer min;
+
+    private Integer max;
+
+    private Double average;
+
+    private Map<String, Integer> percentiles = new LinkedHashMap<>();
+
+    public MoneyIncomeStatsDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public MoneyIncomeStatsDTO(String roll, Long count, Long total, Integer min, Integer max, Double average) {
+        this.roll = roll;
+        this.count = count;
+        this.total = total;
+        this.min = min;
+        this.max = max;
+        this.average = average;
+    }
+
+    public String getRoll() {
+        return roll;
+    }
+
+    public void setRoll(String roll) {
+        this.roll = roll;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public Integer getMin() {
+        return min;
+    }
+
+    public void setMin(Integer min) {
+        this.min = min;
+    }
+
+    public Integer getMax() {
+        return max;
+    }
+
+    public void setMax(Integer max) {
+        this.max = max;
+    }
+
+    public Double getAverage() {
+        return average;
+    }
+
+    public void setAverage(Double average) {
+        this.average = average;
+    }
+
+    public Map<String, Integer> getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(Map<String, Integer> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MoneyIncomeStatsDTO{" +
+            "roll='" + roll + '\'' +
+            ", count=" + count +
+            ", total=" + total +
+            ", min=" + min +
+            ", max=" + max +
+            ", average=" + average +
+            ", percentiles=" + percentiles +
+            "}";
+    }
+}
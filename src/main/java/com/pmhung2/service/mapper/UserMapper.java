@@ -2,6 +2,7 @@ package com.pmhung2.service.mapper;
 
 import com.pmhung2.domain.Authority;
 import com.pmhung2.domain.User;
+import com.pmhung2.service.AuthorityService;
 import com.pmhung2.service.dto.AdminUserDTO;
 import com.pmhung2.service.dto.UserDTO;
 import java.util.*;
@@ -20,6 +21,12 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserMapper {
 
+    private final AuthorityService authorityService;
+
+    public UserMapper(AuthorityService authorityService) {
+        this.authorityService = authorityService;
+    }
+
     public List<UserDTO> usersToUserDTOs(List<User> users) {
         return users.stream().filter(Objects::nonNull).map(this::userToUserDTO).collect(Collectors.toList());
     }
@@ -66,11 +73,15 @@ public class UserMapper {
             authorities =
                 authoritiesAsString
                     .stream()
-                    .map(string -> {
-                        Authority auth = new Authority();
-                        auth.setName(string);
-                        return auth;
-                    })
+                    .map(string ->
+                        authorityService
+                            .findByName(string)
+                            .orElseGet(() -> {
+                                Authority auth = new Authority();
+                                auth.setName(string);
+                                return auth;
+                            })
+                    )
                     .collect(Collectors.toSet());
         }
 
@@ -0,0 +1,41 @@
+package com.pmhung2.web.rest;
+
+import com.pmhung2.service.ClusterCacheService;
+import java.io.IOException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller receiving the cache invalidations broadcast by the other instances of the cluster.
+ */
+@RestController
+@RequestMapping("/api/cluster")
+public class ClusterCacheResource {
+
+    private final ClusterCacheService clusterCacheService;
+
+    public ClusterCacheResource(ClusterCacheService clusterCacheService) {
+        this.clusterCacheService = clusterCacheService;
+    }
+
+    /**
+     * {@code POST  /cluster/cache-invalidations} : evict the caches of this instance as requested by another one.
+     *
+     * @param body the invalidation message.
+     * @param signature the signature of the message.
+     * @return the {@link ResponseEntity} with status {@code 204 (No Content)},
+     * or with status {@code 401 (Unauthorized)} if the signature is not valid.
+     * @throws IOException if the message could not be read.
+     */
+    @PostMapping("/cache-invalidations")
+    public ResponseEntity<Void> receiveCacheInvalidation(
+        @RequestBody byte[] body,
+        @RequestHeader(name = ClusterCacheService.SIGNATURE_HEADER, required = false) String signature
+    ) throws IOException {
+        if (!clusterCacheService.receive(body, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
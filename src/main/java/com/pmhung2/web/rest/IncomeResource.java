@@ -2,12 +2,18 @@ package com.pmhung2.web.rest;
 
 import com.pmhung2.domain.Income;
 import com.pmhung2.repository.IncomeRepository;
+import com.pmhung2.service.ClusterCacheService;
+import com.pmhung2.service.EntityExportService;
+import com.pmhung2.service.EstimatedCountService;
 import com.pmhung2.web.rest.errors.BadRequestAlertException;
+import com.pmhung2.web.rest.util.SlicePaginationUtil;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -15,6 +21,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -42,8 +50,22 @@ public class IncomeResource {
 
     private final IncomeRepository incomeRepository;
 
-    public IncomeResource(IncomeRepository incomeRepository) {
+    private final EntityExportService entityExportService;
+
+    private final EstimatedCountService estimatedCountService;
+
+    private final ClusterCacheService clusterCacheService;
+
+    public IncomeResource(
+        IncomeRepository incomeRepository,
+        EntityExportService entityExportService,
+        EstimatedCountService estimatedCountService,
+        ClusterCacheService clusterCacheService
+    ) {
         this.incomeRepository = incomeRepository;
+        this.entityExportService = entityExportService;
+        this.estimatedCountService = estimatedCountService;
+        this.clusterCacheService = clusterCacheService;
     }
 
     /**
@@ -94,6 +116,7 @@ public class IncomeResource {
         }
 
         Income result = incomeRepository.save(income);
+        clusterCacheService.evictEntity(Income.class, id);
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, income.getId().toString()))
@@ -144,6 +167,7 @@ public class IncomeResource {
                 return existingIncome;
             })
             .map(incomeRepository::save);
+        clusterCacheService.evictEntity(Income.class, id);
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -153,18 +177,82 @@ public class IncomeResource {
 
     /**
      * {@code GET  /incomes} : get all the incomes.
+     * <p>
+     * With the {@code after} parameter, the incomes are read in keyset mode: the incomes whose id is greater than
+     * {@code after} are returned in id order, the next page is given by the {@code next} link and no total is counted.
+     * Otherwise, the {@code count} parameter tells how the total is computed: {@code exact} (default) counts the incomes,
+     * {@code none} only returns whether there is a next page and {@code estimate} returns a periodically refreshed
+     * estimate of the total.
      *
      * @param pageable the pagination information.
+     * @param after the id to return the incomes after, to read in keyset mode.
+     * @param count how the total number of incomes is computed, {@code exact}, {@code none} or {@code estimate}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of incomes in body.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the count mode is not supported.
      */
     @GetMapping("/incomes")
-    public ResponseEntity<List<Income>> getAllIncomes(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<Income>> getAllIncomes(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = SlicePaginationUtil.AFTER_PARAMETER, required = false) Long after,
+        @RequestParam(name = SlicePaginationUtil.TOTAL_COUNT_PARAMETER, defaultValue = "exact") String count
+    ) {
+        if (after != null) {
+            log.debug("REST request to get a slice of Incomes after id {}", after);
+            Slice<Income> slice = incomeRepository.findAllByIdGreaterThan(after, SlicePaginationUtil.keysetPageable(pageable));
+            HttpHeaders headers = SlicePaginationUtil.generateKeysetPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                Income::getId
+            );
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        SlicePaginationUtil.TotalCount totalCount = SlicePaginationUtil.TotalCount
+            .fromName(count)
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported count mode", ENTITY_NAME, "countinvalid"));
+        if (totalCount != SlicePaginationUtil.TotalCount.EXACT) {
+            log.debug("REST request to get a slice of Incomes, count mode {}", totalCount);
+            Slice<Income> slice = incomeRepository.findAllBy(pageable);
+            HttpHeaders headers = totalCount == SlicePaginationUtil.TotalCount.ESTIMATE
+                ? SlicePaginationUtil.generateEstimatedPaginationHttpHeaders(
+                    ServletUriComponentsBuilder.fromCurrentRequest(),
+                    slice,
+                    estimatedCountService.estimateCount(Income.class)
+                )
+                : SlicePaginationUtil.generateSlicePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         log.debug("REST request to get a page of Incomes");
         Page<Income> page = incomeRepository.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /incomes/export} : export all the incomes, streamed in id order.
+     *
+     * @param format the format of the export, {@code ndjson} (default) or {@code csv}.
+     * @param response the response the incomes are written to.
+     * @throws IOException if the response could not be written.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/incomes/export")
+    @Transactional(readOnly = true)
+    public void exportIncomes(@RequestParam(name = "format", defaultValue = "ndjson") String format, HttpServletResponse response)
+        throws IOException {
+        log.debug("REST request to export all Incomes as {}", format);
+        EntityExportService.Format exportFormat = EntityExportService.Format
+            .fromName(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported export format", ENTITY_NAME, "formatinvalid"));
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("incomes." + exportFormat.getExtension()).build().toString()
+        );
+        entityExportService.exportIncomes(exportFormat, response.getOutputStream());
+    }
+
     /**
      * {@code GET  /incomes/:id} : get the "id" income.
      *
@@ -172,6 +260,7 @@ public class IncomeResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the income, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/incomes/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Income> getIncome(@PathVariable Long id) {
         log.debug("REST request to get Income : {}", id);
         Optional<Income> income = incomeRepository.findById(id);
@@ -188,6 +277,7 @@ public class IncomeResource {
     public ResponseEntity<Void> deleteIncome(@PathVariable Long id) {
         log.debug("REST request to delete Income : {}", id);
         incomeRepository.deleteById(id);
+        clusterCacheService.evictEntity(Income.class, id);
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
@@ -2,12 +2,23 @@ package com.pmhung2.web.rest;
 
 import com.pmhung2.domain.Money;
 import com.pmhung2.repository.MoneyRepository;
+import com.pmhung2.service.ClusterCacheService;
+import com.pmhung2.service.EntityExportService;
+import com.pmhung2.service.EstimatedCountService;
+import com.pmhung2.service.MoneyBulkService;
+import com.pmhung2.service.MoneyStatsService;
+import com.pmhung2.service.dto.BulkItemResultDTO;
+import com.pmhung2.service.dto.MoneyIncomeStatsDTO;
 import com.pmhung2.web.rest.errors.BadRequestAlertException;
+import com.pmhung2.web.rest.util.SlicePaginationUtil;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -15,9 +26,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -42,8 +57,30 @@ public class MoneyResource {
 
     private final MoneyRepository moneyRepository;
 
-    public MoneyResource(MoneyRepository moneyRepository) {
+    private final MoneyStatsService moneyStatsService;
+
+    private final EntityExportService entityExportService;
+
+    private final EstimatedCountService estimatedCountService;
+
+    private final ClusterCacheService clusterCacheService;
+
+    private final MoneyBulkService moneyBulkService;
+
+    public MoneyResource(
+        MoneyRepository moneyRepository,
+        MoneyStatsService moneyStatsService,
+        EntityExportService entityExportService,
+        EstimatedCountService estimatedCountService,
+        ClusterCacheService clusterCacheService,
+        MoneyBulkService moneyBulkService
+    ) {
         this.moneyRepository = moneyRepository;
+        this.moneyStatsService = moneyStatsService;
+        this.entityExportService = entityExportService;
+        this.estimatedCountService = estimatedCountService;
+        this.clusterCacheService = clusterCacheService;
+        this.moneyBulkService = moneyBulkService;
     }
 
     /**
@@ -66,6 +103,25 @@ public class MoneyResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /monies/bulk} : Create or update monies in bulk.
+     * <p>
+     * The body is either a JSON array of monies or newline-delimited JSON monies. Monies without an ID are created,
+     * the others are updated. Items are written in chunks, each chunk in its own transaction.
+     *
+     * @param body the stream of monies to save.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each item,
+     * or with status {@code 400 (Bad Request)} if the body is not valid JSON or is truncated, with the number of items
+     * committed before the error and their outcome.
+     * @throws IOException if the body could not be read.
+     */
+    @PostMapping(value = "/monies/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson" })
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<List<BulkItemResultDTO>> saveMoniesInBulk(InputStream body) throws IOException {
+        log.debug("REST request to save Monies in bulk");
+        return ResponseEntity.ok().body(moneyBulkService.saveAll(body));
+    }
+
     /**
      * {@code PUT  /monies/:id} : Updates an existing money.
      *
@@ -92,6 +148,7 @@ public class MoneyResource {
         }
 
         Money result = moneyRepository.save(money);
+        clusterCacheService.evictEntity(Money.class, id);
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, money.getId().toString()))
@@ -142,6 +199,7 @@ public class MoneyResource {
                 return existingMoney;
             })
             .map(moneyRepository::save);
+        clusterCacheService.evictEntity(Money.class, id);
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -151,18 +209,101 @@ public class MoneyResource {
 
     /**
      * {@code GET  /monies} : get all the monies.
+     * <p>
+     * With the {@code after} parameter, the monies are read in keyset mode: the monies whose id is greater than
+     * {@code after} are returned in id order, the next page is given by the {@code next} link and no total is counted.
+     * Otherwise, the {@code count} parameter tells how the total is computed: {@code exact} (default) counts the monies,
+     * {@code none} only returns whether there is a next page and {@code estimate} returns a periodically refreshed
+     * estimate of the total.
      *
      * @param pageable the pagination information.
+     * @param after the id to return the monies after, to read in keyset mode.
+     * @param count how the total number of monies is computed, {@code exact}, {@code none} or {@code estimate}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of monies in body.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the count mode is not supported.
      */
     @GetMapping("/monies")
-    public ResponseEntity<List<Money>> getAllMonies(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<Money>> getAllMonies(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = SlicePaginationUtil.AFTER_PARAMETER, required = false) Long after,
+        @RequestParam(name = SlicePaginationUtil.TOTAL_COUNT_PARAMETER, defaultValue = "exact") String count
+    ) {
+        if (after != null) {
+            log.debug("REST request to get a slice of Monies after id {}", after);
+            Slice<Money> slice = moneyRepository.findAllByIdGreaterThan(after, SlicePaginationUtil.keysetPageable(pageable));
+            HttpHeaders headers = SlicePaginationUtil.generateKeysetPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                Money::getId
+            );
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        SlicePaginationUtil.TotalCount totalCount = SlicePaginationUtil.TotalCount
+            .fromName(count)
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported count mode", ENTITY_NAME, "countinvalid"));
+        if (totalCount != SlicePaginationUtil.TotalCount.EXACT) {
+            log.debug("REST request to get a slice of Monies, count mode {}", totalCount);
+            Slice<Money> slice = moneyRepository.findAllBy(pageable);
+            HttpHeaders headers = totalCount == SlicePaginationUtil.TotalCount.ESTIMATE
+                ? SlicePaginationUtil.generateEstimatedPaginationHttpHeaders(
+                    ServletUriComponentsBuilder.fromCurrentRequest(),
+                    slice,
+                    estimatedCountService.estimateCount(Money.class)
+                )
+                : SlicePaginationUtil.generateSlicePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         log.debug("REST request to get a page of Monies");
         Page<Money> page = moneyRepository.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /monies/stats} : get the income statistics of the monies, grouped by roll.
+     *
+     * @param percentiles the percentiles of the income to compute, each in the {@code (0, 100]} range.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the statistics of each roll in body,
+     * or with status {@code 400 (Bad Request)} if a percentile is out of range.
+     */
+    @GetMapping("/monies/stats")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<MoneyIncomeStatsDTO>> getMoneyIncomeStats(
+        @RequestParam(name = "percentiles", defaultValue = "50,90,99") List<Double> percentiles
+    ) {
+        log.debug("REST request to get Money income statistics, percentiles : {}", percentiles);
+        if (percentiles.stream().anyMatch(percentile -> percentile == null || percentile <= 0 || percentile > 100)) {
+            throw new BadRequestAlertException("Percentiles must be in the (0, 100] range", ENTITY_NAME, "percentileinvalid");
+        }
+        return ResponseEntity.ok().body(moneyStatsService.getIncomeStatsByRoll(percentiles));
+    }
+
+    /**
+     * {@code GET  /monies/export} : export all the monies, streamed in id order.
+     *
+     * @param format the format of the export, {@code ndjson} (default) or {@code csv}.
+     * @param response the response the monies are written to.
+     * @throws IOException if the response could not be written.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/monies/export")
+    @Transactional(readOnly = true)
+    public void exportMonies(@RequestParam(name = "format", defaultValue = "ndjson") String format, HttpServletResponse response)
+        throws IOException {
+        log.debug("REST request to export all Monies as {}", format);
+        EntityExportService.Format exportFormat = EntityExportService.Format
+            .fromName(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported export format", ENTITY_NAME, "formatinvalid"));
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("monies." + exportFormat.getExtension()).build().toString()
+        );
+        entityExportService.exportMonies(exportFormat, response.getOutputStream());
+    }
+
     /**
      * {@code GET  /monies/:id} : get the "id" money.
      *
@@ -170,6 +311,7 @@ public class MoneyResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the money, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/monies/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Money> getMoney(@PathVariable Long id) {
         log.debug("REST request to get Money : {}", id);
         Optional<Money> money = moneyRepository.findById(id);
@@ -186,6 +328,7 @@ public class MoneyResource {
     public ResponseEntity<Void> deleteMoney(@PathVariable Long id) {
         log.debug("REST request to delete Money : {}", id);
         moneyRepository.deleteById(id);
+        clusterCacheService.evictEntity(Money.class, id);
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
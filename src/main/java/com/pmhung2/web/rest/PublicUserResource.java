@@ -1,13 +1,16 @@
 package com.pmhung2.web.rest;
 
+import com.pmhung2.service.AuthorityService;
 import com.pmhung2.service.UserService;
 import com.pmhung2.service.dto.UserDTO;
+import com.pmhung2.web.rest.util.SlicePaginationUtil;
 import java.util.*;
 import java.util.Collections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -28,23 +31,42 @@ public class PublicUserResource {
 
     private final UserService userService;
 
-    public PublicUserResource(UserService userService) {
+    private final AuthorityService authorityService;
+
+    public PublicUserResource(UserService userService, AuthorityService authorityService) {
         this.userService = userService;
+        this.authorityService = authorityService;
     }
 
     /**
      * {@code GET /users} : get all users with only the public informations - calling this are allowed for anyone.
+     * <p>
+     * With the {@code after} parameter, the users are read in keyset mode: see {@link SlicePaginationUtil}.
      *
      * @param pageable the pagination information.
+     * @param after the id to return the users after, to read in keyset mode.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
-    public ResponseEntity<List<UserDTO>> getAllPublicUsers(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<UserDTO>> getAllPublicUsers(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = SlicePaginationUtil.AFTER_PARAMETER, required = false) Long after
+    ) {
         log.debug("REST request to get all public User names");
         if (!onlyContainsAllowedProperties(pageable)) {
             return ResponseEntity.badRequest().build();
         }
 
+        if (after != null) {
+            final Slice<UserDTO> slice = userService.getAllPublicUsersAfter(after, SlicePaginationUtil.keysetPageable(pageable));
+            HttpHeaders headers = SlicePaginationUtil.generateKeysetPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                UserDTO::getId
+            );
+            return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+        }
+
         final Page<UserDTO> page = userService.getAllPublicUsers(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
@@ -55,11 +77,11 @@ public class PublicUserResource {
     }
 
     /**
-     * Gets a list of all roles.
+     * Gets a list of all roles, held in memory by the {@link AuthorityService}.
      * @return a string list of all roles.
      */
     @GetMapping("/authorities")
     public List<String> getAuthorities() {
-        return userService.getAuthorities();
+        return authorityService.getAuthorityNames();
     }
 }
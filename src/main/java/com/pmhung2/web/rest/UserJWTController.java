@@ -1,16 +1,29 @@
 package com.pmhung2.web.rest;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.pmhung2.domain.Authority;
+import com.pmhung2.domain.User;
+import com.pmhung2.security.LoginRateLimiter;
+import com.pmhung2.security.SecurityUtils;
 import com.pmhung2.security.jwt.JWTFilter;
 import com.pmhung2.security.jwt.TokenProvider;
+import com.pmhung2.service.RefreshTokenService;
+import com.pmhung2.service.TokenRevocationService;
 import com.pmhung2.web.rest.vm.LoginVM;
+import com.pmhung2.web.rest.vm.RefreshTokenVM;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,13 +38,38 @@ public class UserJWTController {
 
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
 
-    public UserJWTController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder) {
+    private final LoginRateLimiter loginRateLimiter;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    public UserJWTController(
+        TokenProvider tokenProvider,
+        AuthenticationManagerBuilder authenticationManagerBuilder,
+        LoginRateLimiter loginRateLimiter,
+        RefreshTokenService refreshTokenService,
+        TokenRevocationService tokenRevocationService
+    ) {
         this.tokenProvider = tokenProvider;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
+        this.loginRateLimiter = loginRateLimiter;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
+    /**
+     * {@code POST /authenticate} : log in, throttled by client address and by login.
+     * <p>
+     * The client address is resolved by the {@link LoginRateLimiter} through the configured trusted proxies.
+     *
+     * @param loginVM the credentials.
+     * @param request the request.
+     * @return the access and refresh tokens.
+     */
     @PostMapping("/authenticate")
-    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM) {
+    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM, HttpServletRequest request) {
+        loginRateLimiter.checkAllowed(request, loginVM.getUsername());
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
             loginVM.getUsername(),
             loginVM.getPassword()
@@ -39,10 +77,63 @@ public class UserJWTController {
 
         Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.createToken(authentication, loginVM.isRememberMe());
+        String refreshToken = refreshTokenService.createToken(authentication.getName(), loginVM.isRememberMe());
+        String jwt = tokenProvider.createToken(authentication, loginVM.isRememberMe(), RefreshTokenService.sessionId(refreshToken));
+        return tokenResponse(jwt, refreshToken);
+    }
+
+    /**
+     * {@code POST /authenticate/refresh} : issue a new access token in exchange of a refresh token.
+     * <p>
+     * The refresh token is only valid once: the response holds the one to use next time.
+     *
+     * @param refreshTokenVM the refresh token.
+     * @return the new access and refresh tokens, or status {@code 401 (Unauthorized)} if the refresh token is not valid.
+     */
+    @PostMapping("/authenticate/refresh")
+    public ResponseEntity<JWTToken> refresh(@Valid @RequestBody RefreshTokenVM refreshTokenVM) {
+        RefreshTokenService.RefreshedToken refreshed = refreshTokenService
+            .refreshToken(refreshTokenVM.getRefreshToken())
+            .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        String jwt = tokenProvider.createToken(
+            authentication(refreshed.getUser()),
+            refreshed.isRememberMe(),
+            RefreshTokenService.sessionId(refreshed.getToken())
+        );
+        return tokenResponse(jwt, refreshed.getToken());
+    }
+
+    /**
+     * {@code DELETE /authenticate} : revoke the access token of the request, which is rejected from now on by all the
+     * instances, and close the refresh session it was issued in.
+     *
+     * @return the {@link ResponseEntity} with status {@code 204 (No Content)}.
+     */
+    @DeleteMapping("/authenticate")
+    public ResponseEntity<Void> revoke() {
+        SecurityUtils
+            .getCurrentUserJWT()
+            .ifPresent(jwt -> {
+                tokenRevocationService.revokeToken(jwt);
+                tokenProvider.getSessionId(jwt).ifPresent(refreshTokenService::revokeSession);
+            });
+        return ResponseEntity.noContent().build();
+    }
+
+    private static Authentication authentication(User user) {
+        List<GrantedAuthority> authorities = user
+            .getAuthorities()
+            .stream()
+            .map(Authority::getName)
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList());
+        return new UsernamePasswordAuthenticationToken(user.getLogin(), null, authorities);
+    }
+
+    private static ResponseEntity<JWTToken> tokenResponse(String jwt, String refreshToken) {
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
-        return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
+        return new ResponseEntity<>(new JWTToken(jwt, refreshToken), httpHeaders, HttpStatus.OK);
     }
 
     /**
@@ -52,8 +143,11 @@ public class UserJWTController {
 
         private String idToken;
 
-        JWTToken(String idToken) {
+        private String refreshToken;
+
+        JWTToken(String idToken, String refreshToken) {
             this.idToken = idToken;
+            this.refreshToken = refreshToken;
         }
 
         @JsonProperty("id_token")
@@ -64,5 +158,14 @@ public class UserJWTController {
         void setIdToken(String idToken) {
             this.idToken = idToken;
         }
+
+        @JsonProperty("refresh_token")
+        String getRefreshToken() {
+            return refreshToken;
+        }
+
+        void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
     }
 }
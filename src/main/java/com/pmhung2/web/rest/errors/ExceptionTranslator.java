@@ -1,5 +1,8 @@
 package com.pmhung2.web.rest.errors;
 
+import com.pmhung2.security.LoginThrottledException;
+import com.pmhung2.security.PasswordHashingRejectedException;
+import com.pmhung2.service.BulkAbortedException;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collection;
@@ -14,6 +17,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.validation.BindingResult;
@@ -43,6 +47,9 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
     private static final String MESSAGE_KEY = "message";
     private static final String PATH_KEY = "path";
     private static final String VIOLATIONS_KEY = "violations";
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String COMMITTED_KEY = "committed";
+    private static final String RESULTS_KEY = "results";
 
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
@@ -149,6 +156,36 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(new InvalidPasswordException(), request);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handlePasswordHashingRejectedException(PasswordHashingRejectedException ex, NativeWebRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return create(new TooManyRequestsException(), request, headers);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleLoginThrottledException(LoginThrottledException ex, NativeWebRequest request) {
+        // Rounded up, so that the client does not retry before the next attempt is allowed
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return create(new TooManyRequestsException(), request, headers);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleBulkAbortedException(BulkAbortedException ex, NativeWebRequest request) {
+        Problem problem = Problem
+            .builder()
+            .withStatus(Status.BAD_REQUEST)
+            .withTitle("Invalid bulk request body")
+            .withDetail(ex.getMessage())
+            .with(MESSAGE_KEY, ErrorConstants.ERR_BULK_ABORTED)
+            .with(COMMITTED_KEY, ex.getCommitted())
+            .with(RESULTS_KEY, ex.getResults())
+            .build();
+        return create(ex, problem, request);
+    }
+
     @ExceptionHandler
     public ResponseEntity<Problem> handleBadRequestAlertException(BadRequestAlertException ex, NativeWebRequest request) {
         return create(
@@ -0,0 +1,22 @@
+package com.pmhung2.web.rest.errors;
+
+import java.util.Map;
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+public class TooManyRequestsException extends AbstractThrowableProblem {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyRequestsException() {
+        super(
+            ErrorConstants.TOO_MANY_REQUESTS_TYPE,
+            "Too many requests",
+            Status.TOO_MANY_REQUESTS,
+            null,
+            null,
+            null,
+            Map.of("message", "error.http." + Status.TOO_MANY_REQUESTS.getStatusCode())
+        );
+    }
+}
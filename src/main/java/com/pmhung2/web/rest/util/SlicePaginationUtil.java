@@ -0,0 +1,168 @@
+package com.pmhung2.web.rest.util;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling pagination without a total count.
+ * <p>
+ * In keyset mode, the client asks for the rows after a given id ({@code ?after=<id>&size=<n>}, starting with
+ * {@code after=0}) and follows the {@code next} link: the database seeks on the primary key instead of scanning and
+ * counting the skipped rows.
+ * <p>
+ * In slice mode ({@code ?count=none}), the page is read without counting the rows and only a has-next marker is
+ * returned; with {@code ?count=estimate}, the total is an estimate refreshed periodically instead of an exact count.
+ */
+public final class SlicePaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+
+    public static final String TOTAL_COUNT_PARAMETER = "count";
+
+    public static final String HEADER_X_HAS_NEXT_PAGE = "X-Has-Next-Page";
+
+    public static final String HEADER_X_TOTAL_COUNT = "X-Total-Count";
+
+    public static final String HEADER_X_TOTAL_COUNT_ESTIMATED = "X-Total-Count-Estimated";
+
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    /**
+     * How the total number of rows of a listing is computed.
+     */
+    public enum TotalCount {
+        /**
+         * The rows are counted with a query on each request.
+         */
+        EXACT,
+        /**
+         * The rows are not counted, only a has-next marker is returned.
+         */
+        NONE,
+        /**
+         * The total is a periodically refreshed estimate.
+         */
+        ESTIMATE;
+
+        public static Optional<TotalCount> fromName(String name) {
+            return Arrays.stream(values()).filter(mode -> mode.name().equals(name.toUpperCase(Locale.ENGLISH))).findFirst();
+        }
+    }
+
+    private SlicePaginationUtil() {}
+
+    /**
+     * Build the request of a keyset page: the first page of the given size, in ascending id order.
+     *
+     * @param pageable the pagination information requested by the client, only its size is used.
+     * @return the keyset page request.
+     */
+    public static Pageable keysetPageable(Pageable pageable) {
+        return PageRequest.of(0, pageable.getPageSize(), Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    /**
+     * Generate the pagination headers of a keyset page: a {@code next} link when more rows follow.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the keyset page.
+     * @param idExtractor the function extracting the id of a row.
+     * @param <T> the type of the rows.
+     * @return the pagination headers.
+     */
+    public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Slice<T> slice,
+        Function<T, Long> idExtractor
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HEADER_X_HAS_NEXT_PAGE, Boolean.toString(slice.hasNext()));
+        if (slice.hasNext() && slice.hasContent()) {
+            T last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            String link = uriBuilder
+                .replaceQueryParam("page")
+                .replaceQueryParam("sort")
+                .replaceQueryParam(AFTER_PARAMETER, idExtractor.apply(last))
+                .replaceQueryParam("size", slice.getSize())
+                .toUriString()
+                .replace(",", "%2C")
+                .replace(";", "%3B");
+            headers.add(HttpHeaders.LINK, MessageFormat.format(HEADER_LINK_FORMAT, link, "next"));
+        }
+        return headers;
+    }
+
+    /**
+     * Generate the pagination headers of a slice read without counting its rows: the has-next marker and the
+     * {@code next} and {@code prev} links.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the slice.
+     * @param <T> the type of the rows.
+     * @return the pagination headers.
+     */
+    public static <T> HttpHeaders generateSlicePaginationHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HEADER_X_HAS_NEXT_PAGE, Boolean.toString(slice.hasNext()));
+        List<String> links = new ArrayList<>();
+        if (slice.hasNext()) {
+            links.add(prepareLink(uriBuilder, slice.getNumber() + 1, slice.getSize(), "next"));
+        }
+        if (slice.hasPrevious()) {
+            links.add(prepareLink(uriBuilder, slice.getNumber() - 1, slice.getSize(), "prev"));
+        }
+        links.add(prepareLink(uriBuilder, 0, slice.getSize(), "first"));
+        headers.add(HttpHeaders.LINK, String.join(",", links));
+        return headers;
+    }
+
+    /**
+     * Generate the pagination headers of a slice whose total is estimated: the slice headers, plus the estimated total
+     * and the {@code last} link computed from it.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the slice.
+     * @param estimatedTotal the estimated total number of rows.
+     * @param <T> the type of the rows.
+     * @return the pagination headers.
+     */
+    public static <T> HttpHeaders generateEstimatedPaginationHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Slice<T> slice,
+        long estimatedTotal
+    ) {
+        HttpHeaders headers = generateSlicePaginationHttpHeaders(uriBuilder, slice);
+        // The estimate may be stale, it is never less than what the slice proves to exist.
+        long seen = (long) slice.getNumber() * slice.getSize() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        long total = Math.max(estimatedTotal, seen);
+        headers.add(HEADER_X_TOTAL_COUNT, Long.toString(total));
+        headers.add(HEADER_X_TOTAL_COUNT_ESTIMATED, Boolean.TRUE.toString());
+        int lastPage = total == 0 ? 0 : (int) ((total - 1) / slice.getSize());
+        headers.set(
+            HttpHeaders.LINK,
+            headers.getFirst(HttpHeaders.LINK) + "," + prepareLink(uriBuilder, lastPage, slice.getSize(), "last")
+        );
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
+        String link = uriBuilder
+            .replaceQueryParam("page", Integer.toString(pageNumber))
+            .replaceQueryParam("size", Integer.toString(pageSize))
+            .toUriString()
+            .replace(",", "%2C")
+            .replace(";", "%3B");
+        return MessageFormat.format(HEADER_LINK_FORMAT, link, relType);
+    }
+}
@@ -0,0 +1,79 @@
+package com.pmhung2.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.pmhung2.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MethodTimingAspectTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ApplicationProperties.MethodTiming properties = new ApplicationProperties.MethodTiming();
+
+    private ProceedingJoinPoint joinPoint;
+
+    private MethodSignature signature;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        joinPoint = mock(ProceedingJoinPoint.class);
+        signature = mock(MethodSignature.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.getMethod()).thenReturn(String.class.getMethod("trim"));
+    }
+
+    @Test
+    void testTimeEveryCall() throws Throwable {
+        properties.setSampleRate(1);
+        MethodTimingAspect aspect = new MethodTimingAspect(meterRegistry, properties);
+        when(joinPoint.proceed()).thenReturn("result");
+
+        assertThat(aspect.timeAround(joinPoint)).isEqualTo("result");
+        assertThat(aspect.timeAround(joinPoint)).isEqualTo("result");
+
+        Timer timer = meterRegistry
+            .get(MethodTimingAspect.METRIC_NAME)
+            .tag("class", "String")
+            .tag("method", "trim")
+            .tag("exception", "none")
+            .timer();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @Test
+    void testTimeNoCall() throws Throwable {
+        properties.setSampleRate(0);
+        MethodTimingAspect aspect = new MethodTimingAspect(meterRegistry, properties);
+        when(joinPoint.proceed()).thenReturn("result");
+
+        assertThat(aspect.timeAround(joinPoint)).isEqualTo("result");
+
+        verify(joinPoint).proceed();
+        verifyNoInteractions(signature);
+        assertThat(meterRegistry.find(MethodTimingAspect.METRIC_NAME).timer()).isNull();
+    }
+
+    @Test
+    void testTimeExceptions() throws Throwable {
+        properties.setSampleRate(1);
+        MethodTimingAspect aspect = new MethodTimingAspect(meterRegistry, properties);
+        when(joinPoint.proceed()).thenThrow(new IllegalStateException("failure"));
+
+        assertThatIllegalStateException().isThrownBy(() -> aspect.timeAround(joinPoint)).withMessage("failure");
+
+        Timer timer = meterRegistry.get(MethodTimingAspect.METRIC_NAME).tag("exception", "IllegalStateException").timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+}
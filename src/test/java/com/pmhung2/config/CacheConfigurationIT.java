@@ -0,0 +1,107 @@
+package com.pmhung2.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pmhung2.IntegrationTest;
+import com.pmhung2.domain.Money;
+import com.pmhung2.repository.MoneyRepository;
+import java.util.Optional;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests of the Hibernate second-level cache configured by {@link CacheConfiguration}.
+ * <p>
+ * The other tests run with the second-level cache disabled, it is enabled here together with the statistics.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+    }
+)
+class CacheConfigurationIT {
+
+    @Autowired
+    private MoneyRepository moneyRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private Statistics hibernateStatistics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Long id;
+
+    @BeforeEach
+    public void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Money money = new Money().name("AAAAAAAAAA").roll("AAAAAAAAAA").income(1);
+        id = transactionTemplate.execute(status -> moneyRepository.saveAndFlush(money).getId());
+        entityManagerFactory.getCache().evict(Money.class);
+        hibernateStatistics.setStatisticsEnabled(true);
+        hibernateStatistics.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        transactionTemplate.executeWithoutResult(status -> moneyRepository.findById(id).ifPresent(moneyRepository::delete));
+    }
+
+    @Test
+    void assertThatEntityIsReadFromTheCache() {
+        Optional<Money> money = transactionTemplate.execute(status -> moneyRepository.findById(id));
+
+        assertThat(money).isPresent();
+        assertThat(hibernateStatistics.getSecondLevelCacheMissCount()).isEqualTo(1);
+        assertThat(hibernateStatistics.getSecondLevelCachePutCount()).isEqualTo(1);
+        long statements = hibernateStatistics.getPrepareStatementCount();
+
+        money = transactionTemplate.execute(status -> moneyRepository.findById(id));
+
+        assertThat(money).isPresent();
+        assertThat(hibernateStatistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(hibernateStatistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
+
+    @Test
+    void assertThatUpdatedEntityIsReadFromTheCache() {
+        transactionTemplate.executeWithoutResult(status -> moneyRepository.findById(id).orElseThrow().setName("BBBBBBBBBB"));
+        hibernateStatistics.clear();
+
+        Money money = transactionTemplate.execute(status -> moneyRepository.findById(id).orElseThrow());
+
+        // The cached entry was replaced by the update, not left stale
+        assertThat(money.getName()).isEqualTo("BBBBBBBBBB");
+        assertThat(hibernateStatistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(hibernateStatistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void assertThatDeletedEntityIsEvictedFromTheCache() {
+        transactionTemplate.execute(status -> moneyRepository.findById(id));
+        assertThat(entityManagerFactory.getCache().contains(Money.class, id)).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> moneyRepository.deleteById(id));
+        hibernateStatistics.clear();
+
+        // The deleted entity is not read from the cache, the entry is replaced by a lock until it expires
+        Optional<Money> money = transactionTemplate.execute(status -> moneyRepository.findById(id));
+
+        assertThat(money).isEmpty();
+        assertThat(hibernateStatistics.getSecondLevelCacheHitCount()).isZero();
+    }
+}
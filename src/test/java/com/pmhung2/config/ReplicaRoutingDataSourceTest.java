@@ -0,0 +1,126 @@
+package com.pmhung2.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests for {@link ReplicaRoutingDataSource} and {@link ReplicaLagMonitor}, with two H2 databases standing for the
+ * primary and the replica.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ApplicationProperties.Replica properties = new ApplicationProperties.Replica();
+
+    private HikariDataSource primary;
+
+    private HikariDataSource replica;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    public void setup() {
+        primary = database("primary");
+        replica = database("replica");
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        replicaLagMonitor = new ReplicaLagMonitor(replica, routingDataSource, properties, meterRegistry);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void testRouteReadOnlyTransactionsToReplica() {
+        assertThat(database(readOnlyTransaction)).isEqualTo("replica");
+        assertThat(database(readWriteTransaction)).isEqualTo("primary");
+        assertThat(database()).isEqualTo("primary");
+
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.CONNECTIONS_METER_NAME).tag("target", "replica").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testFallBackToPrimaryWhileReplicaLags() {
+        properties.setLagQuery("select 60");
+        replicaLagMonitor.check();
+
+        assertThat(database(readOnlyTransaction)).isEqualTo("primary");
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.CONNECTIONS_METER_NAME).tag("target", "fallback").counter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("datasource.replica.lag").gauge().value()).isEqualTo(60);
+        assertThat(meterRegistry.get("datasource.replica.available").gauge().value()).isZero();
+
+        properties.setLagQuery("select 1");
+        replicaLagMonitor.check();
+
+        assertThat(database(readOnlyTransaction)).isEqualTo("replica");
+        assertThat(meterRegistry.get("datasource.replica.available").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testFallBackToPrimaryWhenReplicationIsStopped() {
+        properties.setLagQuery("select cast(null as int)");
+        replicaLagMonitor.check();
+
+        assertThat(database(readOnlyTransaction)).isEqualTo("primary");
+        assertThat(meterRegistry.get("datasource.replica.lag").gauge().value()).isNaN();
+    }
+
+    @Test
+    void testFallBackToPrimaryWhenReplicaIsDown() {
+        replica.close();
+        replicaLagMonitor.check();
+
+        assertThat(database(readOnlyTransaction)).isEqualTo("primary");
+    }
+
+    private String database() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private String database(TransactionTemplate transaction) {
+        return transaction.execute(status -> database());
+    }
+
+    private HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name);
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(2);
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("create table node (name varchar(20))");
+        template.update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,40 @@
+package com.pmhung2.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadExecutorsTest {
+
+    @Test
+    void testSupportedFromJdk21() {
+        assertThat(VirtualThreadExecutors.isSupported()).isEqualTo(Runtime.version().feature() >= 21);
+    }
+
+    @Test
+    void testRunTasksOnVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreadExecutors.isSupported());
+
+        ExecutorService executor = VirtualThreadExecutors.newVirtualThreadPerTaskExecutor("test-virtual-");
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            assertThat(thread.getName()).startsWith("test-virtual-");
+            assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testFailWhenNotSupported() {
+        assumeFalse(VirtualThreadExecutors.isSupported());
+
+        assertThatIllegalStateException().isThrownBy(() -> VirtualThreadExecutors.newVirtualThreadPerTaskExecutor("test-virtual-"));
+    }
+}
@@ -0,0 +1,30 @@
+package com.pmhung2.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class VirtualThreadsConfigurationTest {
+
+    @Test
+    void testShutDownRequestExecutorOnDestroy() {
+        assumeTrue(VirtualThreadExecutors.isSupported());
+        VirtualThreadsConfiguration configuration = new VirtualThreadsConfiguration();
+        configuration.virtualThreadsUndertowCustomizer().customize(new UndertowServletWebServerFactory());
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(configuration, "undertowExecutor");
+        assertThat(executor).isNotNull();
+
+        configuration.destroy();
+
+        assertThat(executor.isShutdown()).isTrue();
+    }
+
+    @Test
+    void testDestroyWithoutRequestExecutor() {
+        new VirtualThreadsConfiguration().destroy();
+    }
+}
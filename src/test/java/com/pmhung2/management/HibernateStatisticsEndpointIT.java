@@ -0,0 +1,56 @@
+package com.pmhung2.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pmhung2.IntegrationTest;
+import com.pmhung2.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link HibernateStatisticsEndpoint}.
+ */
+@IntegrationTest
+@Transactional
+class HibernateStatisticsEndpointIT {
+
+    @Autowired
+    private HibernateStatisticsEndpoint hibernateStatisticsEndpoint;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void cleanup() {
+        hibernateStatisticsEndpoint.enable(false);
+        hibernateStatisticsEndpoint.clear();
+    }
+
+    @Test
+    void testStatisticsDisabledByDefault() {
+        userRepository.findAll();
+
+        Map<String, Object> statistics = hibernateStatisticsEndpoint.statistics();
+        assertThat(statistics).containsEntry("enabled", false).containsEntry("queryExecutionCount", 0L);
+    }
+
+    @Test
+    void testSwitchStatisticsOn() {
+        hibernateStatisticsEndpoint.enable(true);
+
+        userRepository.findAll();
+
+        Map<String, Object> statistics = hibernateStatisticsEndpoint.statistics();
+        assertThat(statistics).containsEntry("enabled", true);
+        assertThat((Long) statistics.get("queryExecutionCount")).isPositive();
+        assertThat(meterRegistry.get("hibernate.query.executions").functionCounter().count()).isPositive();
+        assertThat(meterRegistry.get("hibernate.statistics.enabled").gauge().value()).isEqualTo(1);
+    }
+}
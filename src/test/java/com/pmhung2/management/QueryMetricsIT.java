@@ -0,0 +1,53 @@
+package com.pmhung2.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pmhung2.IntegrationTest;
+import com.pmhung2.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the metrics of the database queries.
+ */
+@IntegrationTest
+@Transactional
+class QueryMetricsIT {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testRecordRowsOfRepositoryMethods() {
+        int users = userRepository.findAll().size();
+
+        assertThat(
+            meterRegistry
+                .get(RepositoryRowsInterceptor.ROWS_METER_NAME)
+                .tag("repository", "UserRepository")
+                .tag("method", "findAll")
+                .summary()
+                .max()
+        )
+            .isGreaterThanOrEqualTo(users);
+        assertThat(meterRegistry.get("spring.data.repository.invocations").tag("repository", "UserRepository").timers()).isNotEmpty();
+    }
+
+    @Test
+    void testCountHibernateStatements() {
+        statementCounter.start();
+        userRepository.findAll();
+        StatementCounter.Statements statements = statementCounter.stop();
+
+        assertThat(statements.getCount()).isPositive();
+        assertThat(statements.getExecutions()).isNotEmpty();
+    }
+}
@@ -0,0 +1,34 @@
+package com.pmhung2.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class SlowQueryLogTest {
+
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ofMillis(100), 2);
+
+    @Test
+    void testIgnoreFastQueries() {
+        slowQueryLog.record("select u from User u", 10, 99);
+
+        assertThat(slowQueryLog.getSlowQueries()).isEmpty();
+        assertThat(slowQueryLog.getCount()).isZero();
+    }
+
+    @Test
+    void testKeepMostRecentSlowQueriesSlowestFirst() {
+        slowQueryLog.record("select u from User u where u.login = :login", 1, 300);
+        slowQueryLog.record("select m from Money m", 1000, 100);
+        slowQueryLog.record("select m from Money m where m.roll = :roll", 10, 200);
+
+        assertThat(slowQueryLog.getSlowQueries())
+            .extracting(SlowQueryLog.SlowQuery::getQuery)
+            .containsExactly("select m from Money m where m.roll = :roll", "select m from Money m");
+        assertThat(slowQueryLog.getCount()).isEqualTo(3);
+
+        slowQueryLog.clear();
+        assertThat(slowQueryLog.getSlowQueries()).isEmpty();
+    }
+}
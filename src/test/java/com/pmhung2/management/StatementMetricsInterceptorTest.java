@@ -0,0 +1,87 @@
+package com.pmhung2.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+class StatementMetricsInterceptorTest {
+
+    private static final String SELECT_USER = "select * from jhi_user where id = ?";
+
+    private static final String SELECT_AUTHORITIES = "select * from jhi_user_authority where user_id = ?";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    private final StatementMetricsInterceptor interceptor = new StatementMetricsInterceptor(statementCounter, meterRegistry, 3);
+
+    @Test
+    void testCountStatementsOfRequest() {
+        MockHttpServletRequest request = request();
+        statementCounter.inspect(SELECT_USER);
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        statementCounter.inspect(SELECT_USER);
+        statementCounter.inspect(SELECT_AUTHORITIES);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        statementCounter.inspect(SELECT_USER);
+
+        assertThat(meterRegistry.get(StatementMetricsInterceptor.STATEMENTS_METER_NAME).tag("uri", "/api/users").summary().totalAmount())
+            .isEqualTo(2);
+        assertThat(meterRegistry.find(StatementMetricsInterceptor.REPEATED_STATEMENTS_METER_NAME).counter()).isNull();
+    }
+
+    @Test
+    void testReportRepeatedStatements() {
+        MockHttpServletRequest request = request();
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        statementCounter.inspect(SELECT_USER);
+        for (int i = 0; i < 3; i++) {
+            statementCounter.inspect(SELECT_AUTHORITIES);
+        }
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        assertThat(meterRegistry.get(StatementMetricsInterceptor.STATEMENTS_METER_NAME).summary().totalAmount()).isEqualTo(4);
+        assertThat(meterRegistry.get(StatementMetricsInterceptor.REPEATED_STATEMENTS_METER_NAME).tag("uri", "/api/users").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testReportOnlyRepeatedSelects() {
+        MockHttpServletRequest request = request();
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        for (int i = 0; i < 3; i++) {
+            statementCounter.inspect("insert into jhi_user (login, id) values (?, ?)");
+            statementCounter.inspect("/* load com.pmhung2.domain.User */ " + SELECT_USER);
+        }
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        assertThat(meterRegistry.get(StatementMetricsInterceptor.STATEMENTS_METER_NAME).summary().totalAmount()).isEqualTo(6);
+        assertThat(meterRegistry.get(StatementMetricsInterceptor.REPEATED_STATEMENTS_METER_NAME).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testStopCountingWhenAsyncRequestStarts() {
+        MockHttpServletRequest request = request();
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        statementCounter.inspect(SELECT_USER);
+        interceptor.afterConcurrentHandlingStarted(request, new MockHttpServletResponse(), null);
+
+        assertThat(statementCounter.stop()).isNull();
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/users");
+        return request;
+    }
+}
@@ -0,0 +1,62 @@
+package com.pmhung2.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+/**
+ * Test class for the {@link AuthorityMaskMethodSecurityExpressionHandler}.
+ */
+class AuthorityMaskMethodSecurityExpressionHandlerTest {
+
+    private final AuthorityMaskMethodSecurityExpressionHandler handler = new AuthorityMaskMethodSecurityExpressionHandler();
+
+    private AuthorityRegistry authorityRegistry;
+
+    @BeforeEach
+    public void setup() {
+        authorityRegistry = new AuthorityRegistry();
+    }
+
+    @Test
+    void testEvaluateExpressionsOnAuthorityMask() throws Exception {
+        long mask = authorityRegistry.register(List.of(AuthoritiesConstants.USER));
+        User principal = new User("user", "", authorityRegistry.getAuthorities(mask));
+        Authentication authentication = new AuthorityMaskAuthentication(principal, "token", mask, authorityRegistry);
+
+        assertThat(evaluate("hasAuthority('" + AuthoritiesConstants.USER + "')", authentication)).isTrue();
+        assertThat(evaluate("hasAuthority('" + AuthoritiesConstants.ADMIN + "')", authentication)).isFalse();
+        assertThat(evaluate("hasAnyAuthority('" + AuthoritiesConstants.ADMIN + "', '" + AuthoritiesConstants.USER + "')", authentication))
+            .isTrue();
+        assertThat(evaluate("hasRole('USER')", authentication)).isTrue();
+        assertThat(evaluate("isAuthenticated() and principal.username == 'user'", authentication)).isTrue();
+        assertThat(evaluate("permitAll", authentication)).isTrue();
+    }
+
+    @Test
+    void testEvaluateExpressionsWithoutAuthorityMask() throws Exception {
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+            "user",
+            "user",
+            List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+
+        assertThat(evaluate("hasAuthority('" + AuthoritiesConstants.USER + "')", authentication)).isTrue();
+        assertThat(evaluate("hasAuthority('" + AuthoritiesConstants.ADMIN + "')", authentication)).isFalse();
+    }
+
+    private boolean evaluate(String expression, Authentication authentication) throws Exception {
+        SimpleMethodInvocation invocation = new SimpleMethodInvocation(this, Object.class.getMethod("toString"));
+        EvaluationContext context = handler.createEvaluationContext(authentication, invocation);
+        return ExpressionUtils.evaluateAsBoolean(handler.getExpressionParser().parseExpression(expression), context);
+    }
+}
@@ -0,0 +1,83 @@
+package com.pmhung2.security;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.pmhung2.IntegrationTest;
+import com.pmhung2.security.jwt.TokenProvider;
+import com.pmhung2.web.rest.UserResource;
+import java.util.List;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests of the {@code @PreAuthorize} checks of the REST resources on the authentication of a JWT token,
+ * evaluated by the {@link AuthorityMaskMethodSecurityExpressionHandler}.
+ */
+@AutoConfigureMockMvc
+@IntegrationTest
+@Transactional
+class AuthorityMaskMethodSecurityIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenProvider tokenProvider;
+
+    @Autowired
+    private UserResource userResource;
+
+    @SpyBean
+    private MethodSecurityExpressionHandler methodSecurityExpressionHandler;
+
+    @Test
+    void testAdminTokenIsGranted() throws Exception {
+        mockMvc
+            .perform(get("/api/admin/users/admin").header(HttpHeaders.AUTHORIZATION, bearer("admin", AuthoritiesConstants.ADMIN)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.login").value("admin"));
+
+        verify((AuthorityMaskMethodSecurityExpressionHandler) methodSecurityExpressionHandler, atLeastOnce())
+            .createSecurityExpressionRoot(any(AuthorityMaskAuthentication.class), any(MethodInvocation.class));
+    }
+
+    @Test
+    void testUserTokenIsDenied() {
+        // The requests of a user to /api/admin are denied before @PreAuthorize, the resource is called directly
+        SecurityContextHolder.getContext().setAuthentication(tokenProvider.getAuthentication(token("user", AuthoritiesConstants.USER)));
+        try {
+            assertThatThrownBy(() -> userResource.getUser("admin")).isInstanceOf(AccessDeniedException.class);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        verify((AuthorityMaskMethodSecurityExpressionHandler) methodSecurityExpressionHandler, atLeastOnce())
+            .createSecurityExpressionRoot(any(AuthorityMaskAuthentication.class), any(MethodInvocation.class));
+    }
+
+    private String bearer(String login, String authority) {
+        return "Bearer " + token(login, authority);
+    }
+
+    private String token(String login, String authority) {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(authority));
+        return tokenProvider.createToken(new UsernamePasswordAuthenticationToken(login, null, authorities), false);
+    }
+}
@@ -0,0 +1,74 @@
+package com.pmhung2.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Test class for the {@link AuthorityRegistry}.
+ */
+class AuthorityRegistryTest {
+
+    private AuthorityRegistry authorityRegistry;
+
+    @BeforeEach
+    public void setup() {
+        authorityRegistry = new AuthorityRegistry();
+    }
+
+    @Test
+    void testRegisterGivesABitPerAuthority() {
+        long user = authorityRegistry.register(List.of(AuthoritiesConstants.USER));
+        long admin = authorityRegistry.register(List.of(AuthoritiesConstants.ADMIN));
+        long both = authorityRegistry.register(List.of(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER));
+
+        assertThat(Long.bitCount(user)).isEqualTo(1);
+        assertThat(Long.bitCount(admin)).isEqualTo(1);
+        assertThat(user & admin).isZero();
+        assertThat(both).isEqualTo(user | admin);
+        assertThat(authorityRegistry.mask(AuthoritiesConstants.USER)).isEqualTo(user);
+        assertThat(authorityRegistry.mask(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER)).isEqualTo(both);
+    }
+
+    @Test
+    void testMaskDoesNotRegister() {
+        assertThat(authorityRegistry.mask(AuthoritiesConstants.ADMIN)).isZero();
+        assertThat(authorityRegistry.mask(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER)).isZero();
+
+        long user = authorityRegistry.register(List.of(AuthoritiesConstants.USER));
+
+        assertThat(authorityRegistry.mask(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER)).isEqualTo(user);
+        assertThat(authorityRegistry.mask(AuthoritiesConstants.ADMIN)).isZero();
+    }
+
+    @Test
+    void testGetAuthoritiesIsInterned() {
+        long mask = authorityRegistry.register(List.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN));
+
+        List<GrantedAuthority> authorities = authorityRegistry.getAuthorities(mask);
+
+        assertThat(authorities)
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+        assertThat(authorityRegistry.getAuthorities(mask)).isSameAs(authorities);
+        assertThat(authorities.get(0)).isSameAs(authorityRegistry.getAuthority(AuthoritiesConstants.USER));
+        assertThat(authorityRegistry.getAuthorities(0)).isEmpty();
+    }
+
+    @Test
+    void testRegisterTooManyAuthorities() {
+        List<String> names = IntStream
+            .range(0, AuthorityRegistry.MAX_AUTHORITIES)
+            .mapToObj(i -> "ROLE_" + i)
+            .collect(Collectors.toList());
+
+        assertThat(authorityRegistry.register(names)).isEqualTo(-1L);
+        assertThatThrownBy(() -> authorityRegistry.register(List.of(AuthoritiesConstants.USER))).isInstanceOf(IllegalStateException.class);
+    }
+}
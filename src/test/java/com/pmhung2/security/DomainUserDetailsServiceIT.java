@@ -11,7 +11,9 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -35,8 +37,14 @@ class DomainUserDetailsServiceIT {
     @Autowired
     private UserDetailsService domainUserDetailsService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @BeforeEach
     public void init() {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+
         User userOne = new User();
         userOne.setLogin(USER_ONE_LOGIN);
         userOne.setPassword(RandomStringUtils.random(60));
@@ -103,6 +111,36 @@ class DomainUserDetailsServiceIT {
         assertThat(userDetails.getUsername()).isEqualTo(USER_ONE_LOGIN);
     }
 
+    @Test
+    void assertThatUserIsCachedByNormalizedEmail() {
+        domainUserDetailsService.loadUserByUsername(USER_TWO_EMAIL.toUpperCase(Locale.ENGLISH));
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get(USER_TWO_EMAIL)).isNotNull();
+
+        UserDetails userDetails = domainUserDetailsService.loadUserByUsername(USER_TWO_EMAIL);
+        assertThat(userDetails.getUsername()).isEqualTo(USER_TWO_LOGIN);
+    }
+
+    @Test
+    void assertThatCachedUserIsCopied() {
+        User user = userRepository.findOneWithAuthoritiesByLogin(USER_ONE_LOGIN).orElseThrow();
+        user.setFirstName("changed");
+
+        User cachedUser = userRepository.findOneWithAuthoritiesByLogin(USER_ONE_LOGIN).orElseThrow();
+
+        assertThat(cachedUser).isNotSameAs(user);
+        assertThat(cachedUser.getFirstName()).isEqualTo("userOne");
+    }
+
+    @Test
+    void assertThatPasswordIsRehashedForEmailLogin() {
+        UserDetails userDetails = domainUserDetailsService.loadUserByUsername(USER_TWO_EMAIL);
+        String newPassword = RandomStringUtils.random(60);
+
+        ((UserDetailsPasswordService) domainUserDetailsService).updatePassword(userDetails, newPassword);
+
+        assertThat(userRepository.findOneByLogin(USER_TWO_LOGIN)).map(User::getPassword).contains(newPassword);
+    }
+
     @Test
     void assertThatUserNotActivatedExceptionIsThrownForNotActivatedUsers() {
         assertThatExceptionOfType(UserNotActivatedException.class)
@@ -0,0 +1,139 @@
+package com.pmhung2.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.pmhung2.config.ApplicationProperties;
+import com.pmhung2.management.SecurityMetersService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class LoginRateLimiterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong nanos = new AtomicLong(42);
+
+    private final ApplicationProperties.LoginThrottling properties = new ApplicationProperties.LoginThrottling();
+
+    @BeforeEach
+    public void setup() {
+        properties.getIp().setCapacity(5);
+        properties.getIp().setPeriod(Duration.ofSeconds(10));
+        properties.getLogin().setCapacity(2);
+        properties.getLogin().setPeriod(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void testRejectLoginOverCapacity() {
+        LoginRateLimiter limiter = limiter();
+
+        limiter.checkAllowed("10.0.0.1", "admin");
+        limiter.checkAllowed("10.0.0.2", " Admin ");
+        assertThatExceptionOfType(LoginThrottledException.class)
+            .isThrownBy(() -> limiter.checkAllowed("10.0.0.3", "ADMIN"))
+            .satisfies(e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(5)));
+        limiter.checkAllowed("10.0.0.3", "user");
+
+        assertThat(count("allowed")).isEqualTo(3);
+        assertThat(count("rejected-login")).isEqualTo(1);
+    }
+
+    @Test
+    void testRejectIpOverCapacity() {
+        LoginRateLimiter limiter = limiter();
+
+        for (int i = 0; i < 5; i++) {
+            limiter.checkAllowed("10.0.0.1", "user" + i);
+        }
+        assertThatExceptionOfType(LoginThrottledException.class).isThrownBy(() -> limiter.checkAllowed("10.0.0.1", "other"));
+        limiter.checkAllowed("10.0.0.2", "other");
+
+        assertThat(count("rejected-ip")).isEqualTo(1);
+    }
+
+    @Test
+    void testRefillOverPeriod() {
+        LoginRateLimiter limiter = limiter();
+
+        limiter.checkAllowed("10.0.0.1", "admin");
+        limiter.checkAllowed("10.0.0.1", "admin");
+        assertThatExceptionOfType(LoginThrottledException.class).isThrownBy(() -> limiter.checkAllowed("10.0.0.1", "admin"));
+
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+        limiter.checkAllowed("10.0.0.1", "admin");
+        assertThatExceptionOfType(LoginThrottledException.class).isThrownBy(() -> limiter.checkAllowed("10.0.0.1", "admin"));
+
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        limiter.checkAllowed("10.0.0.1", "admin");
+        limiter.checkAllowed("10.0.0.1", "admin");
+    }
+
+    @Test
+    void testAllowEverythingWhenDisabled() {
+        properties.setEnabled(false);
+        LoginRateLimiter limiter = limiter();
+
+        for (int i = 0; i < 10; i++) {
+            limiter.checkAllowed("10.0.0.1", "admin");
+        }
+        assertThat(count("allowed")).isZero();
+    }
+
+    @Test
+    void testClientIpIsRemoteAddressWithoutTrustedProxies() {
+        LoginRateLimiter limiter = limiter();
+
+        assertThat(limiter.clientIp("10.0.0.1", "1.2.3.4")).isEqualTo("10.0.0.1");
+    }
+
+    @Test
+    void testClientIpIsAppendedByTrustedProxies() {
+        properties.setTrustedProxies(2);
+        LoginRateLimiter limiter = limiter();
+
+        // The client sent "1.2.3.4", the first proxy appended the client address, the second one the first proxy address
+        assertThat(limiter.clientIp("10.0.0.2", "1.2.3.4, 5.6.7.8, 10.0.0.1")).isEqualTo("5.6.7.8");
+        assertThat(limiter.clientIp("10.0.0.2", "5.6.7.8,10.0.0.1")).isEqualTo("5.6.7.8");
+        // The request did not go through the proxies
+        assertThat(limiter.clientIp("5.6.7.8", "1.2.3.4")).isEqualTo("5.6.7.8");
+        assertThat(limiter.clientIp("5.6.7.8", null)).isEqualTo("5.6.7.8");
+    }
+
+    @Test
+    void testThrottleClientBehindTrustedProxy() {
+        properties.setTrustedProxies(1);
+        LoginRateLimiter limiter = limiter();
+
+        for (int i = 0; i < 5; i++) {
+            limiter.checkAllowed(request("1.2.3." + i + ", 5.6.7.8"), "user" + i);
+        }
+        assertThatExceptionOfType(LoginThrottledException.class)
+            .isThrownBy(() -> limiter.checkAllowed(request("1.2.3.9, 5.6.7.8"), "other"));
+        limiter.checkAllowed(request("5.6.7.9"), "other");
+    }
+
+    private MockHttpServletRequest request(String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        return request;
+    }
+
+    private LoginRateLimiter limiter() {
+        return new LoginRateLimiter(properties, new SecurityMetersService(meterRegistry), nanos::get);
+    }
+
+    private double count(String result) {
+        return meterRegistry
+            .get(SecurityMetersService.LOGIN_ATTEMPTS_METER_NAME)
+            .tag(SecurityMetersService.LOGIN_ATTEMPTS_METER_RESULT_DIMENSION, result)
+            .counter()
+            .count();
+    }
+}
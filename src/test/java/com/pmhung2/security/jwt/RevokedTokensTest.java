@@ -0,0 +1,64 @@
+package com.pmhung2.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+
+class RevokedTokensTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+
+    private final RevokedTokens revokedTokens = new RevokedTokens();
+
+    @Test
+    void testNothingRevoked() {
+        assertThat(revokedTokens.isRevoked("id", "user", Date.from(NOW))).isFalse();
+        assertThat(revokedTokens.isRevoked(null, "user", null)).isFalse();
+    }
+
+    @Test
+    void testRevokeToken() {
+        revokedTokens.revokeToken("id", NOW.plusSeconds(60));
+
+        assertThat(revokedTokens.isRevoked("id", "user", Date.from(NOW))).isTrue();
+        assertThat(revokedTokens.isRevoked("other-id", "user", Date.from(NOW))).isFalse();
+        assertThat(revokedTokens.isRevoked(null, "user", Date.from(NOW))).isFalse();
+    }
+
+    @Test
+    void testRevokeTokensOfUser() {
+        revokedTokens.revokeTokens("user", NOW, NOW.plusSeconds(60));
+
+        assertThat(revokedTokens.isRevoked("id", "user", Date.from(NOW.minusSeconds(10)))).isTrue();
+        assertThat(revokedTokens.isRevoked("id", "user", Date.from(NOW))).isTrue();
+        assertThat(revokedTokens.isRevoked("id", "user", null)).isTrue();
+        // The tokens issued in the same second, but after the revocation, are still valid
+        assertThat(revokedTokens.isRevoked("id", "user", Date.from(NOW.plusMillis(1)))).isFalse();
+        assertThat(revokedTokens.isRevoked("id", "user", Date.from(NOW.plusSeconds(1)))).isFalse();
+        assertThat(revokedTokens.isRevoked("id", "other", Date.from(NOW.minusSeconds(10)))).isFalse();
+    }
+
+    @Test
+    void testKeepLatestRevocationOfUser() {
+        revokedTokens.revokeTokens("user", NOW.plusSeconds(30), NOW.plusSeconds(90));
+        revokedTokens.revokeTokens("user", NOW, NOW.plusSeconds(60));
+
+        assertThat(revokedTokens.isRevoked("id", "user", Date.from(NOW.plusSeconds(20)))).isTrue();
+        assertThat(revokedTokens.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testRemoveExpired() {
+        revokedTokens.revokeToken("id", NOW.plusSeconds(60));
+        revokedTokens.revokeToken("other-id", NOW.plusSeconds(120));
+        revokedTokens.revokeTokens("user", NOW, NOW.plusSeconds(60));
+
+        revokedTokens.removeExpired(NOW.plusSeconds(90));
+
+        assertThat(revokedTokens.size()).isEqualTo(1);
+        assertThat(revokedTokens.isRevoked("id", "user", Date.from(NOW))).isFalse();
+        assertThat(revokedTokens.isRevoked("other-id", "user", Date.from(NOW))).isTrue();
+    }
+}
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.pmhung2.management.SecurityMetersService;
 import com.pmhung2.security.AuthoritiesConstants;
+import com.pmhung2.security.AuthorityMaskAuthentication;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -11,6 +12,7 @@ import io.jsonwebtoken.security.Keys;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Instant;
 import java.util.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -88,6 +90,95 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testAuthenticateReturnsAuthenticationOfValidToken() {
+        Authentication authentication = createAuthentication();
+        String token = tokenProvider.createToken(authentication, false);
+
+        Optional<Authentication> first = tokenProvider.authenticate(token);
+        Optional<Authentication> second = tokenProvider.authenticate(token);
+
+        assertThat(first).isPresent();
+        assertThat(first.get().getName()).isEqualTo("anonymous");
+        assertThat(first.get().getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ANONYMOUS);
+        assertThat(first.get().getCredentials()).isEqualTo(token);
+        // The second call is served from the cache, without parsing the token again
+        assertThat(second).isPresent();
+        assertThat(second.get().getPrincipal()).isSameAs(first.get().getPrincipal());
+        assertThat(second.get().getAuthorities()).isSameAs(first.get().getAuthorities());
+    }
+
+    @Test
+    void testAuthenticateReturnsAuthorityMask() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Optional<Authentication> authentication = tokenProvider.authenticate(token);
+
+        assertThat(authentication).containsInstanceOf(AuthorityMaskAuthentication.class);
+        AuthorityMaskAuthentication maskAuthentication = (AuthorityMaskAuthentication) authentication.get();
+        assertThat(maskAuthentication.hasAuthority(AuthoritiesConstants.ANONYMOUS)).isTrue();
+        assertThat(maskAuthentication.hasAuthority(AuthoritiesConstants.ADMIN)).isFalse();
+        assertThat(maskAuthentication.hasAnyAuthority(AuthoritiesConstants.ADMIN, AuthoritiesConstants.ANONYMOUS)).isTrue();
+    }
+
+    @Test
+    void testAuthenticateReturnsEmptyWhenJWTisExpired() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.authenticate(token)).isEmpty();
+    }
+
+    @Test
+    void testAuthenticateReturnsEmptyWhenJWThasInvalidSignature() {
+        assertThat(tokenProvider.authenticate(createTokenWithDifferentSignature())).isEmpty();
+    }
+
+    @Test
+    void testAuthenticateReturnsEmptyWhenJWTisRevoked() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        String otherToken = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.authenticate(token)).isPresent();
+
+        Date expiration = tokenProvider.getClaims(token).orElseThrow().getExpiration();
+        revokedTokens().revokeToken(tokenProvider.getClaims(token).orElseThrow().getId(), expiration.toInstant());
+
+        // Revoked even though the token is cached
+        assertThat(tokenProvider.authenticate(token)).isEmpty();
+        assertThat(tokenProvider.authenticate(otherToken)).isPresent();
+    }
+
+    @Test
+    void testAuthenticateReturnsEmptyWhenTokensOfUserAreRevoked() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        revokedTokens().revokeTokens("anonymous", Instant.now(), Instant.now().plusSeconds(60));
+
+        assertThat(tokenProvider.authenticate(token)).isEmpty();
+    }
+
+    @Test
+    void testAuthenticateKeepsTokensIssuedAfterRevocationOfUser() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        Instant issuedAt = Instant.ofEpochMilli(tokenProvider.getClaims(token).orElseThrow().get("iat_ms", Long.class));
+
+        // Most likely in the same second as the token, which is told apart by its issue date in milliseconds
+        revokedTokens().revokeTokens("anonymous", issuedAt.minusMillis(1), issuedAt.plusSeconds(60));
+        assertThat(tokenProvider.authenticate(token)).isPresent();
+
+        revokedTokens().revokeTokens("anonymous", issuedAt, issuedAt.plusSeconds(60));
+        assertThat(tokenProvider.authenticate(token)).isEmpty();
+    }
+
+    @Test
+    void testGetSessionId() {
+        String token = tokenProvider.createToken(createAuthentication(), false, "session-id");
+
+        assertThat(tokenProvider.getSessionId(token)).contains("session-id");
+        assertThat(tokenProvider.getSessionId(tokenProvider.createToken(createAuthentication(), false))).isEmpty();
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
@@ -116,6 +207,10 @@ class TokenProviderTest {
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
     }
 
+    private RevokedTokens revokedTokens() {
+        return (RevokedTokens) ReflectionTestUtils.getField(tokenProvider, "revokedTokens");
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
@@ -0,0 +1,43 @@
+package com.pmhung2.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pmhung2.IntegrationTest;
+import com.pmhung2.domain.Authority;
+import com.pmhung2.security.AuthoritiesConstants;
+import com.pmhung2.security.AuthorityRegistry;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link AuthorityService}.
+ */
+@IntegrationTest
+class AuthorityServiceIT {
+
+    @Autowired
+    private AuthorityService authorityService;
+
+    @Autowired
+    private AuthorityRegistry authorityRegistry;
+
+    @Test
+    void testFindAuthorities() {
+        assertThat(authorityService.getAuthorityNames()).contains(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(authorityService.findByName(AuthoritiesConstants.USER)).map(Authority::getName).contains(AuthoritiesConstants.USER);
+        assertThat(authorityService.findByName("ROLE_UNKNOWN")).isEmpty();
+        assertThat(authorityService.getAuthorities(List.of(AuthoritiesConstants.USER, "ROLE_UNKNOWN")))
+            .extracting(Authority::getName)
+            .containsExactly(AuthoritiesConstants.USER);
+        // The authorities are preloaded, the same instance is returned each time
+        assertThat(authorityService.findByName(AuthoritiesConstants.USER).get())
+            .isSameAs(authorityService.findByName(AuthoritiesConstants.USER).get());
+    }
+
+    @Test
+    void testAuthoritiesAreRegisteredForTheTokens() {
+        assertThat(authorityRegistry.mask(AuthoritiesConstants.ADMIN)).isNotZero();
+        assertThat(authorityRegistry.mask(AuthoritiesConstants.USER)).isNotZero();
+    }
+}
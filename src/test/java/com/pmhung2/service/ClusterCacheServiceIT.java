@@ -0,0 +1,191 @@
+package com.pmhung2.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pmhung2.IntegrationTest;
+import com.pmhung2.config.ApplicationProperties;
+import com.pmhung2.domain.Money;
+import com.pmhung2.service.dto.CacheInvalidationDTO;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryProperties;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for {@link ClusterCacheService}.
+ * <p>
+ * Several instances run in-process, each with its own caches and HTTP endpoint, and discover each other through a
+ * {@link SimpleDiscoveryClient} standing in for Eureka.
+ */
+@IntegrationTest
+class ClusterCacheServiceIT {
+
+    private static final int INSTANCES = 3;
+
+    private static final String CACHE = "test-cache";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    private final List<ConcurrentMapCacheManager> cacheManagers = new ArrayList<>();
+
+    private final List<ClusterCacheService> services = new ArrayList<>();
+
+    @BeforeEach
+    public void startInstances() throws IOException {
+        String serviceId = applicationProperties.getCluster().getServiceId();
+        SimpleDiscoveryProperties registry = new SimpleDiscoveryProperties();
+        List<DefaultServiceInstance> instances = new ArrayList<>();
+        registry.getInstances().put(serviceId, instances);
+        SimpleDiscoveryClient discoveryClient = new SimpleDiscoveryClient(registry);
+        for (int i = 0; i < INSTANCES; i++) {
+            String instanceId = "instance-" + i;
+            ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+            ClusterCacheService service = new ClusterCacheService(
+                discoveryClient,
+                instanceId,
+                entityManagerFactory,
+                cacheManager,
+                objectMapper,
+                jHipsterProperties,
+                applicationProperties
+            );
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext(
+                ClusterCacheService.INVALIDATION_PATH,
+                exchange -> {
+                    try (InputStream body = exchange.getRequestBody()) {
+                        boolean accepted = service.receive(
+                            body.readAllBytes(),
+                            exchange.getRequestHeaders().getFirst(ClusterCacheService.SIGNATURE_HEADER)
+                        );
+                        exchange.sendResponseHeaders(accepted ? 204 : 401, -1);
+                    } finally {
+                        exchange.close();
+                    }
+                }
+            );
+            server.start();
+            instances.add(new DefaultServiceInstance(instanceId, serviceId, "localhost", server.getAddress().getPort(), false));
+            cacheManager.getCache(CACHE).put("key", "value");
+            servers.add(server);
+            cacheManagers.add(cacheManager);
+            services.add(service);
+        }
+    }
+
+    @AfterEach
+    public void stopInstances() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void assertThatEvictionIsBroadcastToTheOtherInstances() throws InterruptedException {
+        services.get(0).evict(CACHE, "key");
+
+        awaitUntil(() -> cacheManagers.stream().skip(1).allMatch(cacheManager -> cacheManager.getCache(CACHE).get("key") == null));
+        assertThat(cacheManagers.get(1).getCache(CACHE).get("key")).isNull();
+        assertThat(cacheManagers.get(2).getCache(CACHE).get("key")).isNull();
+        // The local caches are left to the caller
+        assertThat(cacheManagers.get(0).getCache(CACHE).get("key")).isNotNull();
+    }
+
+    @Test
+    void assertThatWholeRegionEvictionIsBroadcast() throws InterruptedException {
+        cacheManagers.get(1).getCache(CACHE).put("other-key", "value");
+
+        services.get(2).evict(CACHE, null);
+
+        awaitUntil(() -> cacheManagers.get(1).getCache(CACHE).get("other-key") == null);
+        assertThat(cacheManagers.get(1).getCache(CACHE).get("key")).isNull();
+        assertThat(cacheManagers.get(1).getCache(CACHE).get("other-key")).isNull();
+    }
+
+    @Test
+    void assertThatRegisteredRegionIsEvicted() throws InterruptedException {
+        List<String> evictedKeys = new CopyOnWriteArrayList<>();
+        services.get(1).registerRegion("test-region", evictedKeys::add);
+
+        services.get(0).evict("test-region", "key");
+
+        awaitUntil(() -> !evictedKeys.isEmpty());
+        assertThat(evictedKeys).containsExactly("key");
+    }
+
+    @Test
+    void assertThatEntityEvictionIsApplied() throws IOException {
+        byte[] body = message(Instant.now(), new CacheInvalidationDTO.Eviction(Money.class.getName(), "1"));
+
+        assertThat(services.get(1).receive(body, services.get(0).sign(body))).isTrue();
+    }
+
+    @Test
+    void assertThatInvalidSignatureIsRejected() throws IOException {
+        byte[] body = message(Instant.now(), new CacheInvalidationDTO.Eviction(CACHE, "key"));
+
+        assertThat(services.get(1).receive(body, "invalid")).isFalse();
+        assertThat(services.get(1).receive(body, null)).isFalse();
+        assertThat(cacheManagers.get(1).getCache(CACHE).get("key")).isNotNull();
+    }
+
+    @Test
+    void assertThatReplayedMessageIsRejected() throws IOException {
+        byte[] body = message(Instant.now(), new CacheInvalidationDTO.Eviction(CACHE, "other-key"));
+        String signature = services.get(0).sign(body);
+        assertThat(services.get(1).receive(body, signature)).isTrue();
+
+        assertThat(services.get(1).receive(body, signature)).isFalse();
+    }
+
+    @Test
+    void assertThatOldMessageIsRejected() throws IOException {
+        Duration maxMessageAge = applicationProperties.getCluster().getMaxMessageAge();
+        byte[] old = message(Instant.now().minus(maxMessageAge).minusSeconds(1), new CacheInvalidationDTO.Eviction(CACHE, "key"));
+        byte[] future = message(Instant.now().plus(maxMessageAge).plusSeconds(1), new CacheInvalidationDTO.Eviction(CACHE, "key"));
+
+        assertThat(services.get(1).receive(old, services.get(0).sign(old))).isFalse();
+        assertThat(services.get(1).receive(future, services.get(0).sign(future))).isFalse();
+        assertThat(cacheManagers.get(1).getCache(CACHE).get("key")).isNotNull();
+    }
+
+    private byte[] message(Instant issuedAt, CacheInvalidationDTO.Eviction eviction) throws IOException {
+        String id = UUID.randomUUID().toString();
+        return objectMapper.writeValueAsBytes(new CacheInvalidationDTO(id, "instance-0", issuedAt, List.of(eviction)));
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.pmhung2.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pmhung2.IntegrationTest;
+import com.pmhung2.config.ApplicationProperties;
+import com.pmhung2.domain.MailOutboxMessage;
+import com.pmhung2.repository.MailOutboxMessageRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for {@link MailOutboxDispatcher}, sending to a local SMTP server.
+ */
+@IntegrationTest
+class MailOutboxDispatcherIT {
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private MessageSource messageSource;
+
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+
+    @Autowired
+    private MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Boolean> transactionActiveWhileSending = new CopyOnWriteArrayList<>();
+
+    private LocalSmtpServer smtpServer;
+
+    private MeterRegistry meterRegistry;
+
+    private MailService mailService;
+
+    private MailOutboxDispatcher mailOutboxDispatcher;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        mailOutboxMessageRepository.deleteAll();
+        smtpServer = new LocalSmtpServer();
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl() {
+            @Override
+            protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+                transactionActiveWhileSending.add(TransactionSynchronizationManager.isActualTransactionActive());
+                super.doSend(mimeMessages, originalMessages);
+            }
+        };
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(smtpServer.getPort());
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getMailOutbox().setBatchSize(2);
+        applicationProperties.getMailOutbox().setMaxPerSecond(0);
+        applicationProperties.getMailOutbox().setMaxAttempts(2);
+        applicationProperties.getMailOutbox().setRetryBackoff(Duration.ofMinutes(1));
+
+        meterRegistry = new SimpleMeterRegistry();
+        mailService = new MailService(jHipsterProperties, messageSource, templateEngine, mailOutboxMessageRepository);
+        mailOutboxDispatcher =
+            new MailOutboxDispatcher(
+                jHipsterProperties,
+                javaMailSender,
+                mailOutboxMessageRepository,
+                transactionManager,
+                applicationProperties,
+                meterRegistry
+            );
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        smtpServer.close();
+        mailOutboxMessageRepository.deleteAll();
+    }
+
+    @Test
+    void testSendBatchesOverOneConnectionEach() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mailService.sendEmail("john.doe." + i + "@example.com", "testSubject " + i, "testContent", false, false);
+        }
+
+        assertThat(mailOutboxDispatcher.dispatch()).isEqualTo(3);
+
+        // Batches of 2 emails: 2 connections for 3 emails
+        assertThat(smtpServer.connections).hasValue(2);
+        assertThat(smtpServer.messages).hasSize(3);
+        MimeMessage received = new MimeMessage(
+            Session.getInstance(new Properties()),
+            new ByteArrayInputStream(smtpServer.messages.get(0).getBytes(StandardCharsets.UTF_8))
+        );
+        assertThat(received.getSubject()).isEqualTo("testSubject 0");
+        assertThat(received.getAllRecipients()[0]).hasToString("john.doe.0@example.com");
+        assertThat(mailOutboxMessageRepository.findAll()).allMatch(message -> message.getStatus() == MailOutboxMessage.Status.SENT);
+        assertThat(meterRegistry.get("mail.outbox.sent").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("mail.outbox.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void testRetryRejectedEmailThenFail() {
+        mailService.sendEmail("reject@example.com", "testSubject", "testContent", false, false);
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+
+        assertThat(mailOutboxDispatcher.dispatch()).isEqualTo(1);
+
+        assertThat(smtpServer.messages).hasSize(1);
+        MailOutboxMessage rejected = findByRecipient("reject@example.com");
+        assertThat(rejected.getStatus()).isEqualTo(MailOutboxMessage.Status.PENDING);
+        assertThat(rejected.getAttempts()).isEqualTo(1);
+        assertThat(rejected.getNextAttemptAt()).isAfter(Instant.now());
+        assertThat(rejected.getLastError()).isNotBlank();
+        assertThat(findByRecipient("john.doe@example.com").getStatus()).isEqualTo(MailOutboxMessage.Status.SENT);
+        assertThat(meterRegistry.get("mail.outbox.pending").gauge().value()).isEqualTo(1);
+
+        // Not due yet
+        assertThat(mailOutboxDispatcher.dispatch()).isZero();
+        assertThat(findByRecipient("reject@example.com").getAttempts()).isEqualTo(1);
+
+        rejected.setNextAttemptAt(Instant.now());
+        mailOutboxMessageRepository.saveAndFlush(rejected);
+        assertThat(mailOutboxDispatcher.dispatch()).isZero();
+
+        rejected = findByRecipient("reject@example.com");
+        assertThat(rejected.getStatus()).isEqualTo(MailOutboxMessage.Status.FAILED);
+        assertThat(rejected.getAttempts()).isEqualTo(2);
+        assertThat(meterRegistry.get("mail.outbox.retried").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("mail.outbox.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testKeepEmailsWhenServerIsDown() throws IOException {
+        smtpServer.close();
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+
+        assertThat(mailOutboxDispatcher.dispatch()).isZero();
+
+        MailOutboxMessage message = findByRecipient("john.doe@example.com");
+        assertThat(message.getStatus()).isEqualTo(MailOutboxMessage.Status.PENDING);
+        assertThat(message.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void testSendOutsideOfTransaction() {
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+
+        assertThat(mailOutboxDispatcher.dispatch()).isEqualTo(1);
+
+        assertThat(transactionActiveWhileSending).containsExactly(false);
+    }
+
+    @Test
+    void testClaimEmailsWhoseLeaseExpired() {
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+        mailService.sendEmail("jane.doe@example.com", "testSubject", "testContent", false, false);
+        MailOutboxMessage expired = findByRecipient("john.doe@example.com");
+        expired.setStatus(MailOutboxMessage.Status.SENDING);
+        expired.setNextAttemptAt(Instant.now().minusSeconds(1));
+        MailOutboxMessage leased = findByRecipient("jane.doe@example.com");
+        leased.setStatus(MailOutboxMessage.Status.SENDING);
+        leased.setNextAttemptAt(Instant.now().plus(Duration.ofMinutes(5)));
+        mailOutboxMessageRepository.saveAllAndFlush(List.of(expired, leased));
+
+        assertThat(mailOutboxDispatcher.dispatch()).isEqualTo(1);
+
+        assertThat(smtpServer.messages).hasSize(1);
+        assertThat(findByRecipient("john.doe@example.com").getStatus()).isEqualTo(MailOutboxMessage.Status.SENT);
+        assertThat(findByRecipient("jane.doe@example.com").getStatus()).isEqualTo(MailOutboxMessage.Status.SENDING);
+        assertThat(meterRegistry.get("mail.outbox.pending").gauge().value()).isEqualTo(1);
+    }
+
+    private MailOutboxMessage findByRecipient(String recipient) {
+        return mailOutboxMessageRepository
+            .findAll()
+            .stream()
+            .filter(message -> message.getRecipient().equals(recipient))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    /**
+     * A minimal SMTP server accepting every message, except the ones sent to a {@code reject@} address.
+     */
+    private static class LocalSmtpServer {
+
+        private final ServerSocket serverSocket;
+
+        private final AtomicInteger connections = new AtomicInteger();
+
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        LocalSmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0);
+            Thread thread = new Thread(this::accept, "local-smtp-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    connections.incrementAndGet();
+                    converse(socket);
+                } catch (IOException e) {
+                    // Closed
+                }
+            }
+        }
+
+        private void converse(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            reply(out, "220 localhost ESMTP");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("RCPT TO:") && command.contains("<REJECT@")) {
+                    reply(out, "550 Mailbox unavailable");
+                } else if (command.startsWith("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder data = new StringBuilder();
+                    while (!(line = in.readLine()).equals(".")) {
+                        data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+                    }
+                    messages.add(data.toString());
+                    reply(out, "250 OK");
+                } else if (command.startsWith("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    reply(out, "250 OK");
+                }
+            }
+        }
+
+        private void reply(Writer out, String reply) throws IOException {
+            out.write(reply + "\r\n");
+            out.flush();
+        }
+    }
+}
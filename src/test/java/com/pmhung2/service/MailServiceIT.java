@@ -1,12 +1,14 @@
 package com.pmhung2.service;
 
 import static org.assertj.core.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.*;
 
 import com.pmhung2.IntegrationTest;
+import com.pmhung2.config.ApplicationProperties;
 import com.pmhung2.config.Constants;
+import com.pmhung2.domain.MailOutboxMessage;
 import com.pmhung2.domain.User;
+import com.pmhung2.repository.MailOutboxMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -14,6 +16,9 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -21,16 +26,15 @@ import javax.mail.Multipart;
 import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
-import org.mockito.MockitoAnnotations;
-import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
+import org.springframework.mail.MailException;
 import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import tech.jhipster.config.JHipsterProperties;
 
@@ -56,26 +60,46 @@ class MailServiceIT {
     @Autowired
     private SpringTemplateEngine templateEngine;
 
-    @Spy
-    private JavaMailSenderImpl javaMailSender;
+    @Autowired
+    private MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
 
-    @Captor
-    private ArgumentCaptor<MimeMessage> messageCaptor;
+    private RecordingJavaMailSender javaMailSender;
 
     private MailService mailService;
 
+    private MailOutboxDispatcher mailOutboxDispatcher;
+
     @BeforeEach
     public void setup() {
-        MockitoAnnotations.openMocks(this);
-        doNothing().when(javaMailSender).send(any(MimeMessage.class));
-        mailService = new MailService(jHipsterProperties, javaMailSender, messageSource, templateEngine);
+        mailOutboxMessageRepository.deleteAll();
+        javaMailSender = new RecordingJavaMailSender();
+        mailService = new MailService(jHipsterProperties, messageSource, templateEngine, mailOutboxMessageRepository);
+        mailOutboxDispatcher =
+            new MailOutboxDispatcher(
+                jHipsterProperties,
+                javaMailSender,
+                mailOutboxMessageRepository,
+                transactionManager,
+                applicationProperties,
+                new SimpleMeterRegistry()
+            );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        mailOutboxMessageRepository.deleteAll();
     }
 
     @Test
     void testSendEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sendQueuedEmail();
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -87,8 +111,7 @@ class MailServiceIT {
     @Test
     void testSendHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, true);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sendQueuedEmail();
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -100,8 +123,7 @@ class MailServiceIT {
     @Test
     void testSendMultipartEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, false);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sendQueuedEmail();
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart) ((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
         ByteArrayOutputStream aos = new ByteArrayOutputStream();
@@ -117,8 +139,7 @@ class MailServiceIT {
     @Test
     void testSendMultipartHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, true);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sendQueuedEmail();
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart) ((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
         ByteArrayOutputStream aos = new ByteArrayOutputStream();
@@ -138,8 +159,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sendQueuedEmail();
         assertThat(message.getSubject()).isEqualTo("test title");
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -147,6 +167,27 @@ class MailServiceIT {
         assertThat(message.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
     }
 
+    @Test
+    void testSendEmailsFromTemplate() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (String login : Arrays.asList("john", "jane", "nomail")) {
+            User user = new User();
+            user.setLangKey(Constants.DEFAULT_LANGUAGE);
+            user.setLogin(login);
+            user.setEmail("nomail".equals(login) ? null : login + "@example.com");
+            users.add(user);
+        }
+        mailService.sendEmailsFromTemplate(users, "mail/testEmail", "email.test.title");
+        assertThat(mailOutboxMessageRepository.countByStatus(MailOutboxMessage.Status.PENDING)).isEqualTo(2);
+
+        assertThat(mailOutboxDispatcher.dispatch()).isEqualTo(2);
+        assertThat(javaMailSender.sent).hasSize(2);
+        MimeMessage message = javaMailSender.sent.get(1);
+        assertThat(message.getSubject()).isEqualTo("test title");
+        assertThat(message.getAllRecipients()[0]).hasToString("jane@example.com");
+        assertThat(message.getContent().toString()).isEqualToNormalizingNewlines("<html>test title, http://127.0.0.1:8080, jane</html>\n");
+    }
+
     @Test
     void testSendActivationEmail() throws Exception {
         User user = new User();
@@ -154,8 +195,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendActivationEmail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sendQueuedEmail();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -169,8 +209,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendCreationEmail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sendQueuedEmail();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -184,8 +223,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendPasswordResetMail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sendQueuedEmail();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -194,12 +232,32 @@ class MailServiceIT {
 
     @Test
     void testSendEmailWithException() {
-        doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage.class));
+        javaMailSender.failure = new MailSendException("test send failure");
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
         try {
-            mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+            assertThat(mailOutboxDispatcher.dispatch()).isZero();
         } catch (Exception e) {
             fail("Exception shouldn't have been thrown");
         }
+        assertThat(mailOutboxMessageRepository.findAll())
+            .singleElement()
+            .satisfies(message -> {
+                assertThat(message.getStatus()).isEqualTo(MailOutboxMessage.Status.PENDING);
+                assertThat(message.getAttempts()).isEqualTo(1);
+                assertThat(message.getLastError()).isEqualTo("test send failure");
+            });
+    }
+
+    @Test
+    void testEmailIsQueuedUntilDispatched() {
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+        assertThat(javaMailSender.sent).isEmpty();
+        assertThat(mailOutboxMessageRepository.countByStatus(MailOutboxMessage.Status.PENDING)).isEqualTo(1);
+
+        assertThat(mailOutboxDispatcher.dispatch()).isEqualTo(1);
+
+        assertThat(javaMailSender.sent).hasSize(1);
+        assertThat(mailOutboxMessageRepository.countByStatus(MailOutboxMessage.Status.SENT)).isEqualTo(1);
     }
 
     @Test
@@ -210,8 +268,7 @@ class MailServiceIT {
         for (String langKey : languages) {
             user.setLangKey(langKey);
             mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
-            verify(javaMailSender, atLeastOnce()).send(messageCaptor.capture());
-            MimeMessage message = messageCaptor.getValue();
+            MimeMessage message = sendQueuedEmail();
 
             String propertyFilePath = "i18n/messages_" + getJavaLocale(langKey) + ".properties";
             URL resource = this.getClass().getClassLoader().getResource(propertyFilePath);
@@ -226,6 +283,15 @@ class MailServiceIT {
         }
     }
 
+    /**
+     * Send the emails of the outbox and get the last one sent.
+     */
+    private MimeMessage sendQueuedEmail() {
+        mailOutboxDispatcher.dispatch();
+        assertThat(javaMailSender.sent).isNotEmpty();
+        return javaMailSender.sent.get(javaMailSender.sent.size() - 1);
+    }
+
     /**
      * Convert a lang key to the Java locale.
      */
@@ -241,4 +307,22 @@ class MailServiceIT {
         }
         return javaLangKey;
     }
+
+    /**
+     * A mail sender recording the messages instead of sending them.
+     */
+    private static class RecordingJavaMailSender extends JavaMailSenderImpl {
+
+        private final List<MimeMessage> sent = new ArrayList<>();
+
+        private MailException failure;
+
+        @Override
+        public void send(MimeMessage... mimeMessages) {
+            if (failure != null) {
+                throw failure;
+            }
+            sent.addAll(Arrays.asList(mimeMessages));
+        }
+    }
 }
@@ -0,0 +1,139 @@
+package com.pmhung2.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pmhung2.IntegrationTest;
+import com.pmhung2.domain.RefreshToken;
+import com.pmhung2.domain.User;
+import com.pmhung2.repository.RefreshTokenRepository;
+import com.pmhung2.repository.UserRepository;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link RefreshTokenService}.
+ */
+@IntegrationTest
+@Transactional
+class RefreshTokenServiceIT {
+
+    private static final String DEFAULT_LOGIN = "refresh-token-user";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private User user;
+
+    @BeforeEach
+    public void init() {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        user = new User();
+        user.setLogin(DEFAULT_LOGIN);
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setEmail("refresh-token-user@localhost");
+        userRepository.saveAndFlush(user);
+    }
+
+    @Test
+    void testRefreshTokenIsRotated() {
+        String token = refreshTokenService.createToken(DEFAULT_LOGIN, false);
+
+        RefreshTokenService.RefreshedToken refreshed = refreshTokenService.refreshToken(token).orElseThrow();
+
+        assertThat(refreshed.getToken()).isNotEqualTo(token);
+        assertThat(refreshed.getUser().getLogin()).isEqualTo(DEFAULT_LOGIN);
+        assertThat(refreshed.isRememberMe()).isFalse();
+        assertThat(refreshTokenService.refreshToken(refreshed.getToken())).isPresent();
+        assertThat(refreshTokenRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void testReusedRefreshTokenRevokesSession() {
+        String token = refreshTokenService.createToken(DEFAULT_LOGIN, true);
+        RefreshTokenService.RefreshedToken refreshed = refreshTokenService.refreshToken(token).orElseThrow();
+
+        assertThat(refreshTokenService.refreshToken(token)).isEmpty();
+        assertThat(refreshTokenService.refreshToken(refreshed.getToken())).isEmpty();
+        assertThat(refreshTokenRepository.count()).isZero();
+    }
+
+    @Test
+    void testInvalidRefreshTokens() {
+        String token = refreshTokenService.createToken(DEFAULT_LOGIN, false);
+
+        assertThat(refreshTokenService.refreshToken("")).isEmpty();
+        assertThat(refreshTokenService.refreshToken("not-a-token")).isEmpty();
+        assertThat(refreshTokenService.refreshToken("x." + token.substring(token.indexOf('.') + 1))).isEmpty();
+        assertThat(refreshTokenService.refreshToken(Long.MAX_VALUE + ".secret")).isEmpty();
+        assertThat(refreshTokenService.refreshToken("1." + token.substring(token.indexOf('.') + 1))).isEmpty();
+    }
+
+    @Test
+    void testWrongSecretDoesNotRevokeSession() {
+        String token = refreshTokenService.createToken(DEFAULT_LOGIN, false);
+        String sessionId = token.substring(0, token.indexOf('.'));
+
+        assertThat(refreshTokenService.refreshToken(sessionId + ".wrong-secret")).isEmpty();
+
+        assertThat(refreshTokenRepository.count()).isEqualTo(1);
+        assertThat(refreshTokenService.refreshToken(token)).isPresent();
+    }
+
+    @Test
+    void testSessionIdIsNotSequential() {
+        String token = refreshTokenService.createToken(DEFAULT_LOGIN, false);
+        RefreshToken refreshToken = refreshTokenRepository.findAll().get(0);
+
+        assertThat(token).startsWith(refreshToken.getSessionId() + ".");
+        assertThat(refreshToken.getSessionId()).hasSize(22).isNotEqualTo(String.valueOf(refreshToken.getId()));
+    }
+
+    @Test
+    void testExpiredRefreshTokenIsRejected() {
+        String token = refreshTokenService.createToken(DEFAULT_LOGIN, false);
+        RefreshToken refreshToken = refreshTokenRepository.findAll().get(0);
+        refreshToken.setExpiresAt(Instant.now().minus(1, ChronoUnit.MINUTES));
+
+        assertThat(refreshTokenService.refreshToken(token)).isEmpty();
+        assertThat(refreshTokenRepository.count()).isZero();
+    }
+
+    @Test
+    void testRemoveExpiredTokens() {
+        refreshTokenService.createToken(DEFAULT_LOGIN, false);
+        refreshTokenService.createToken(DEFAULT_LOGIN, false);
+        refreshTokenRepository.findAll().get(0).setExpiresAt(Instant.now().minus(1, ChronoUnit.MINUTES));
+        refreshTokenRepository.flush();
+
+        refreshTokenService.removeExpiredTokens();
+
+        assertThat(refreshTokenRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void testRevokeTokens() {
+        String token = refreshTokenService.createToken(DEFAULT_LOGIN, false);
+        refreshTokenService.createToken(DEFAULT_LOGIN, true);
+
+        refreshTokenService.revokeTokens(user);
+
+        assertThat(refreshTokenService.refreshToken(token)).isEmpty();
+        assertThat(refreshTokenRepository.count()).isZero();
+    }
+}
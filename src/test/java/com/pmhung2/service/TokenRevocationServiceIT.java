@@ -0,0 +1,108 @@
+package com.pmhung2.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pmhung2.IntegrationTest;
+import com.pmhung2.domain.RevokedToken;
+import com.pmhung2.repository.RevokedTokenRepository;
+import com.pmhung2.security.AuthoritiesConstants;
+import com.pmhung2.security.jwt.RevokedTokens;
+import com.pmhung2.security.jwt.TokenProvider;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link TokenRevocationService}.
+ */
+@IntegrationTest
+@Transactional
+class TokenRevocationServiceIT {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private RevokedTokens revokedTokens;
+
+    @Autowired
+    private TokenProvider tokenProvider;
+
+    @Test
+    void testRevokeToken() {
+        String token = createToken("token-revocation-token");
+        String otherToken = createToken("token-revocation-token");
+
+        assertThat(tokenRevocationService.revokeToken(token)).isTrue();
+
+        assertThat(tokenProvider.authenticate(token)).isEmpty();
+        assertThat(tokenProvider.authenticate(otherToken)).isPresent();
+        assertThat(revokedTokenRepository.findAll())
+            .extracting(RevokedToken::getTokenId)
+            .contains(tokenProvider.getClaims(token).orElseThrow().getId());
+    }
+
+    @Test
+    void testRevokeInvalidToken() {
+        long revocations = revokedTokenRepository.count();
+
+        assertThat(tokenRevocationService.revokeToken("invalid")).isFalse();
+        assertThat(revokedTokenRepository.count()).isEqualTo(revocations);
+    }
+
+    @Test
+    void testRevokeTokensOfUser() {
+        String token = createToken("token-revocation-user");
+        String otherToken = createToken("token-revocation-other-user");
+
+        tokenRevocationService.revokeTokens("token-revocation-user");
+
+        assertThat(tokenProvider.authenticate(token)).isEmpty();
+        assertThat(tokenProvider.authenticate(otherToken)).isPresent();
+    }
+
+    @Test
+    void testReloadRevocationsOfOtherInstances() {
+        String tokenId = UUID.randomUUID().toString();
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(tokenId);
+        revokedToken.setRevokedDate(Instant.now());
+        revokedToken.setExpiresAt(Instant.now().plus(1, ChronoUnit.HOURS));
+        revokedTokenRepository.saveAndFlush(revokedToken);
+        assertThat(revokedTokens.isRevoked(tokenId, "user", new Date())).isFalse();
+
+        tokenRevocationService.reload();
+
+        assertThat(revokedTokens.isRevoked(tokenId, "user", new Date())).isTrue();
+    }
+
+    @Test
+    void testRemoveExpiredRevocations() {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setLogin("token-revocation-expired");
+        revokedToken.setRevokedDate(Instant.now().minus(2, ChronoUnit.DAYS));
+        revokedToken.setExpiresAt(Instant.now().minus(1, ChronoUnit.DAYS));
+        revokedTokenRepository.saveAndFlush(revokedToken);
+
+        tokenRevocationService.removeExpiredRevocations();
+
+        assertThat(revokedTokenRepository.existsById(revokedToken.getId())).isFalse();
+    }
+
+    private String createToken(String login) {
+        return tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken(login, null, List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))),
+            false
+        );
+    }
+}
@@ -1,8 +1,10 @@
 package com.pmhung2.service.mapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 import com.pmhung2.domain.User;
+import com.pmhung2.service.AuthorityService;
 import com.pmhung2.service.dto.AdminUserDTO;
 import com.pmhung2.service.dto.UserDTO;
 import java.util.ArrayList;
@@ -27,7 +29,7 @@ class UserMapperTest {
 
     @BeforeEach
     public void init() {
-        userMapper = new UserMapper();
+        userMapper = new UserMapper(mock(AuthorityService.class));
         user = new User();
         user.setLogin(DEFAULT_LOGIN);
         user.setPassword(RandomStringUtils.random(60));
@@ -11,6 +11,7 @@ import com.pmhung2.domain.User;
 import com.pmhung2.repository.AuthorityRepository;
 import com.pmhung2.repository.UserRepository;
 import com.pmhung2.security.AuthoritiesConstants;
+import com.pmhung2.security.jwt.RevokedTokens;
 import com.pmhung2.service.UserService;
 import com.pmhung2.service.dto.AdminUserDTO;
 import com.pmhung2.service.dto.PasswordChangeDTO;
@@ -20,9 +21,11 @@ import com.pmhung2.web.rest.vm.ManagedUserVM;
 import java.time.Instant;
 import java.util.*;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -54,6 +57,18 @@ class AccountResourceIT {
     @Autowired
     private MockMvc restAccountMockMvc;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private RevokedTokens revokedTokens;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+    }
+
     @Test
     @WithUnauthenticatedMockUser
     void testNonAuthenticatedUser() throws Exception {
@@ -576,6 +591,7 @@ class AccountResourceIT {
 
         User updatedUser = userRepository.findOneByLogin("change-password").orElse(null);
         assertThat(passwordEncoder.matches("new password", updatedUser.getPassword())).isTrue();
+        assertThat(revokedTokens.isRevoked(null, "change-password", Date.from(Instant.now().minusSeconds(1)))).isTrue();
     }
 
     @Test
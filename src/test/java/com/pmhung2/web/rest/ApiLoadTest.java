@@ -0,0 +1,386 @@
+package com.pmhung2.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pmhung2.JHipsterProjectApp;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.servlet.Filter;
+import javax.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+/**
+ * Load test of the REST API, replaying a realistic mix of requests against the application running on H2.
+ * <p>
+ * It is only run by the {@code load-test} Maven profile: {@code ./mvnw -Pload-test verify}. The number of virtual users
+ * and the durations of the warm-up and of the measurement are read from the {@code loadtest.threads},
+ * {@code loadtest.warmup} and {@code loadtest.duration} system properties. The throughput, p50/p99 latencies and
+ * server-side allocations of each endpoint are logged and written as JSON to {@code target/load-test-result.json}.
+ */
+@SpringBootTest(
+    classes = JHipsterProjectApp.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "application.login-throttling.enabled=false"
+)
+class ApiLoadTest {
+
+    private static final String ENDPOINT_HEADER = "X-Load-Test-Endpoint";
+
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 8);
+
+    private static final Duration WARMUP = Duration.parse(System.getProperty("loadtest.warmup", "PT5S"));
+
+    private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT20S"));
+
+    private static final Path RESULT = Paths.get(System.getProperty("loadtest.result", "target/load-test-result.json"));
+
+    private static final LoadRecorder RECORDER = new LoadRecorder();
+
+    private final Logger log = LoggerFactory.getLogger(ApiLoadTest.class);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    /**
+     * The operations of the mix, each one is picked with a probability proportional to its weight.
+     */
+    private final List<Operation> mix = List.of(
+        new Operation("login", 2, (user, endpoint) -> user.login()),
+        new Operation("account", 15, (user, endpoint) -> user.send(endpoint, user.get("/api/account"), 200)),
+        new Operation("money.list", 15, (user, endpoint) -> user.list(endpoint, "/api/monies")),
+        new Operation("money.get", 20, (user, endpoint) -> user.read(endpoint, "/api/monies/", user.monies)),
+        new Operation("money.create", 8, (user, endpoint) -> user.create(endpoint, "/api/monies", user.monies)),
+        new Operation("money.update", 6, (user, endpoint) -> user.update(endpoint, "/api/monies/", user.monies)),
+        new Operation("money.delete", 4, (user, endpoint) -> user.delete(endpoint, "/api/monies/", user.monies)),
+        new Operation("income.list", 10, (user, endpoint) -> user.list(endpoint, "/api/incomes")),
+        new Operation("income.get", 10, (user, endpoint) -> user.read(endpoint, "/api/incomes/", user.incomes)),
+        new Operation("income.create", 4, (user, endpoint) -> user.create(endpoint, "/api/incomes", user.incomes)),
+        new Operation("income.update", 3, (user, endpoint) -> user.update(endpoint, "/api/incomes/", user.incomes)),
+        new Operation("income.delete", 3, (user, endpoint) -> user.delete(endpoint, "/api/incomes/", user.incomes))
+    );
+
+    @Test
+    void replayMix() throws Exception {
+        int totalWeight = mix.stream().mapToInt(operation -> operation.weight).sum();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long end = System.nanoTime() + WARMUP.plus(DURATION).toNanos();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            long seed = i;
+            futures.add(
+                executor.submit(() -> {
+                    VirtualUser user = new VirtualUser(new Random(seed));
+                    user.login();
+                    user.create("money.create", "/api/monies", user.monies);
+                    user.create("income.create", "/api/incomes", user.incomes);
+                    while (System.nanoTime() < end) {
+                        Operation operation = pick(user.random.nextInt(totalWeight));
+                        operation.action.run(user, operation.name);
+                    }
+                    return null;
+                })
+            );
+        }
+        Thread.sleep(WARMUP.toMillis());
+        RECORDER.recording = true;
+        for (Future<?> future : futures) {
+            future.get(WARMUP.plus(DURATION).plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS);
+        }
+        RECORDER.recording = false;
+        executor.shutdown();
+
+        ArrayNode report = report();
+        Files.createDirectories(RESULT.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(RESULT.toFile(), report);
+        assertThat(RECORDER.endpoints.values().stream().mapToLong(stats -> stats.errors.sum()).sum()).isZero();
+    }
+
+    private Operation pick(int value) {
+        for (Operation operation : mix) {
+            value -= operation.weight;
+            if (value < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private ArrayNode report() {
+        ArrayNode report = objectMapper.createArrayNode();
+        double seconds = DURATION.toNanos() / 1e9;
+        log.info(
+            String.format(
+                "%-16s %10s %10s %10s %10s %10s %14s",
+                "endpoint",
+                "requests",
+                "errors",
+                "req/s",
+                "p50 ms",
+                "p99 ms",
+                "alloc KB/req"
+            )
+        );
+        RECORDER.endpoints.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            EndpointStats stats = entry.getValue();
+            long[] latencies = stats.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            long served = stats.served.sum();
+            ObjectNode node = report.addObject();
+            node.put("endpoint", entry.getKey());
+            node.put("requests", latencies.length);
+            node.put("errors", stats.errors.sum());
+            node.put("rejected", stats.rejected.sum());
+            node.put("throughput", latencies.length / seconds);
+            node.put("p50", percentile(latencies, 0.5) / 1e6);
+            node.put("p99", percentile(latencies, 0.99) / 1e6);
+            node.put("allocatedBytesPerRequest", served == 0 ? 0 : stats.allocatedBytes.sum() / served);
+            node.put("allocationRate", stats.allocatedBytes.sum() / seconds);
+            log.info(
+                String.format(
+                    "%-16s %10d %10d %10.1f %10.2f %10.2f %14.1f",
+                    entry.getKey(),
+                    latencies.length,
+                    stats.errors.sum(),
+                    node.get("throughput").asDouble(),
+                    node.get("p50").asDouble(),
+                    node.get("p99").asDouble(),
+                    node.get("allocatedBytesPerRequest").asLong() / 1024.0
+                )
+            );
+        });
+        return report;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    /**
+     * A client logged in as {@code user}, sending the requests of the mix one after the other.
+     */
+    private final class VirtualUser {
+
+        private final Random random;
+
+        private final Deque<Long> monies = new ArrayDeque<>();
+
+        private final Deque<Long> incomes = new ArrayDeque<>();
+
+        private String token;
+
+        private VirtualUser(Random random) {
+            this.random = random;
+        }
+
+        private void login() throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest
+                .newBuilder(uri("/api/authenticate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"user\",\"password\":\"user\"}"))
+                .build();
+            HttpResponse<String> response = send("login", request, 200);
+            if (response.statusCode() == 200) {
+                token = objectMapper.readTree(response.body()).get("id_token").asText();
+            }
+        }
+
+        private void list(String endpoint, String path) throws IOException, InterruptedException {
+            send(endpoint, get(path + "?page=" + random.nextInt(5) + "&size=20&sort=id,desc"), 200);
+        }
+
+        private void read(String endpoint, String path, Deque<Long> ids) throws IOException, InterruptedException {
+            send(endpoint, get(path + ids.peekLast()), 200);
+        }
+
+        private void create(String endpoint, String path, Deque<Long> ids) throws IOException, InterruptedException {
+            HttpResponse<String> response = send(endpoint, json(path, "POST", entity(null)), 201);
+            if (response.statusCode() == 201) {
+                ids.addLast(objectMapper.readTree(response.body()).get("id").asLong());
+            }
+        }
+
+        private void update(String endpoint, String path, Deque<Long> ids) throws IOException, InterruptedException {
+            Long id = ids.peekLast();
+            send(endpoint, json(path + id, "PUT", entity(id)), 200);
+        }
+
+        private void delete(String endpoint, String path, Deque<Long> ids) throws IOException, InterruptedException {
+            if (ids.size() > 1) {
+                send(endpoint, builder(path + ids.pollFirst()).DELETE().build(), 204);
+            }
+        }
+
+        private String entity(Long id) throws IOException {
+            ObjectNode entity = objectMapper.createObjectNode();
+            if (id != null) {
+                entity.put("id", id);
+            }
+            entity.put("name", "load-test");
+            entity.put("roll", "R" + random.nextInt(10));
+            entity.put("income", random.nextInt(100_000));
+            return objectMapper.writeValueAsString(entity);
+        }
+
+        private HttpRequest get(String path) {
+            return builder(path).GET().build();
+        }
+
+        private HttpRequest json(String path, String method, String body) {
+            return builder(path)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        }
+
+        private HttpRequest.Builder builder(String path) {
+            return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + token);
+        }
+
+        private URI uri(String path) {
+            return URI.create("http://localhost:" + port + path);
+        }
+
+        private HttpResponse<String> send(String endpoint, HttpRequest request, int expectedStatus)
+            throws IOException, InterruptedException {
+            HttpRequest tagged = HttpRequest.newBuilder(request, (name, value) -> true).header(ENDPOINT_HEADER, endpoint).build();
+            long start = System.nanoTime();
+            HttpResponse<String> response = httpClient.send(tagged, HttpResponse.BodyHandlers.ofString());
+            long latency = System.nanoTime() - start;
+            EndpointStats stats = RECORDER.stats(endpoint);
+            if (RECORDER.recording) {
+                stats.latencies.add(latency);
+                if (response.statusCode() == 429) {
+                    stats.rejected.increment();
+                } else if (response.statusCode() != expectedStatus) {
+                    log.warn("Unexpected status {} for {}: {}", response.statusCode(), endpoint, response.body());
+                    stats.errors.increment();
+                }
+            }
+            return response;
+        }
+    }
+
+    /**
+     * An operation of the mix.
+     */
+    private static final class Operation {
+
+        private final String name;
+
+        private final int weight;
+
+        private final Action action;
+
+        private Operation(String name, int weight, Action action) {
+            this.name = name;
+            this.weight = weight;
+            this.action = action;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run(VirtualUser user, String endpoint) throws IOException, InterruptedException;
+    }
+
+    /**
+     * The statistics of a single endpoint.
+     */
+    private static final class EndpointStats {
+
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        private final LongAdder errors = new LongAdder();
+
+        private final LongAdder rejected = new LongAdder();
+
+        private final LongAdder served = new LongAdder();
+
+        private final LongAdder allocatedBytes = new LongAdder();
+    }
+
+    /**
+     * The statistics of all the endpoints, shared by the clients and the server filter.
+     */
+    private static final class LoadRecorder {
+
+        private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+        private volatile boolean recording;
+
+        private EndpointStats stats(String endpoint) {
+            return endpoints.computeIfAbsent(endpoint, key -> new EndpointStats());
+        }
+    }
+
+    @TestConfiguration
+    static class AllocationRecordingConfiguration {
+
+        /**
+         * Record the bytes allocated by the server thread of each request of the load test.
+         */
+        @Bean
+        public FilterRegistrationBean<Filter> allocationRecordingFilter() {
+            com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            Filter filter = (request, response, chain) -> {
+                String endpoint = ((HttpServletRequest) request).getHeader(ENDPOINT_HEADER);
+                if (endpoint == null || !RECORDER.recording) {
+                    chain.doFilter(request, response);
+                    return;
+                }
+                long threadId = Thread.currentThread().getId();
+                long before = threadMXBean.getThreadAllocatedBytes(threadId);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    EndpointStats stats = RECORDER.stats(endpoint);
+                    stats.allocatedBytes.add(threadMXBean.getThreadAllocatedBytes(threadId) - before);
+                    stats.served.increment();
+                }
+            };
+            FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(filter);
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+    }
+}
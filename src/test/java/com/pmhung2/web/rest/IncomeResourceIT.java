@@ -1,6 +1,7 @@
 package com.pmhung2.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -152,6 +153,21 @@ class IncomeResourceIT {
             .andExpect(jsonPath("$.[*].income").value(hasItem(DEFAULT_INCOME)));
     }
 
+    @Test
+    @Transactional
+    void exportIncomesAsNdjson() throws Exception {
+        // Initialize the database
+        incomeRepository.saveAndFlush(income);
+
+        // Export all the incomeList
+        restIncomeMockMvc
+            .perform(get(ENTITY_API_URL + "/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(containsString("\"id\":" + income.getId() + ",\"name\":\"" + DEFAULT_NAME + "\"")))
+            .andExpect(content().string(containsString("\n")));
+    }
+
     @Test
     @Transactional
     void getIncome() throws Exception {
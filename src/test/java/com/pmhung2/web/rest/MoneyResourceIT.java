@@ -1,6 +1,7 @@
 package com.pmhung2.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -9,13 +10,16 @@ import com.pmhung2.IntegrationTest;
 import com.pmhung2.domain.Money;
 import com.pmhung2.repository.MoneyRepository;
 import java.util.List;
+import java.util.Set;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -118,6 +122,94 @@ class MoneyResourceIT {
         assertThat(moneyList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    void saveMoniesInBulk() throws Exception {
+        // Initialize the database, bulk chunks are committed in their own transactions
+        moneyRepository.saveAndFlush(money);
+        Set<Long> idsBeforeBulk = moneyRepository.findAll().stream().map(Money::getId).collect(Collectors.toSet());
+
+        String body =
+            "[" +
+            "{\"name\":\"" + DEFAULT_NAME + "\",\"roll\":\"" + DEFAULT_ROLL + "\",\"income\":" + DEFAULT_INCOME + "}," +
+            "{\"name\":\"" + DEFAULT_NAME + "\",\"income\":" + DEFAULT_INCOME + "}," +
+            "{\"id\":" + money.getId() + ",\"name\":\"" + UPDATED_NAME + "\"," +
+            "\"roll\":\"" + UPDATED_ROLL + "\",\"income\":" + UPDATED_INCOME + "}," +
+            "{\"id\":" + Long.MAX_VALUE + ",\"roll\":\"" + UPDATED_ROLL + "\",\"income\":" + UPDATED_INCOME + "}" +
+            "]";
+        try {
+            restMoneyMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.[2].status").value("UPDATED"))
+                .andExpect(jsonPath("$.[2].id").value(money.getId().intValue()))
+                .andExpect(jsonPath("$.[3].status").value("FAILED"));
+
+            // Validate the Money in the database
+            List<Money> created = moneyRepository
+                .findAll()
+                .stream()
+                .filter(m -> !idsBeforeBulk.contains(m.getId()))
+                .collect(Collectors.toList());
+            assertThat(created).hasSize(1);
+            assertThat(created.get(0).getRoll()).isEqualTo(DEFAULT_ROLL);
+            Money updatedMoney = moneyRepository.findById(money.getId()).orElseThrow();
+            assertThat(updatedMoney.getName()).isEqualTo(UPDATED_NAME);
+            assertThat(updatedMoney.getRoll()).isEqualTo(UPDATED_ROLL);
+            assertThat(updatedMoney.getIncome()).isEqualTo(UPDATED_INCOME);
+        } finally {
+            moneyRepository.deleteAll(
+                moneyRepository.findAll().stream().filter(m -> !idsBeforeBulk.contains(m.getId())).collect(Collectors.toList())
+            );
+            moneyRepository.deleteById(money.getId());
+        }
+    }
+
+    @Test
+    void saveMoniesInBulkFromNdjson() throws Exception {
+        Set<Long> idsBeforeBulk = moneyRepository.findAll().stream().map(Money::getId).collect(Collectors.toSet());
+
+        String line = "{\"name\":\"" + DEFAULT_NAME + "\",\"roll\":\"" + DEFAULT_ROLL + "\",\"income\":" + DEFAULT_INCOME + "}\n";
+        try {
+            restMoneyMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType("application/x-ndjson").content(line + line))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].status").value(hasItem("CREATED")))
+                .andExpect(jsonPath("$.length()").value(2));
+
+            assertThat(moneyRepository.findAll().stream().filter(m -> !idsBeforeBulk.contains(m.getId()))).hasSize(2);
+        } finally {
+            moneyRepository.deleteAll(
+                moneyRepository.findAll().stream().filter(m -> !idsBeforeBulk.contains(m.getId())).collect(Collectors.toList())
+            );
+        }
+    }
+
+    @Test
+    void saveMoniesInBulkFromTruncatedBody() throws Exception {
+        Set<Long> idsBeforeBulk = moneyRepository.findAll().stream().map(Money::getId).collect(Collectors.toSet());
+
+        String item = "{\"name\":\"" + DEFAULT_NAME + "\",\"roll\":\"" + DEFAULT_ROLL + "\",\"income\":" + DEFAULT_INCOME + "}";
+        String truncated = "[" + item + "," + item + ",{\"name\":";
+        try {
+            restMoneyMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType(MediaType.APPLICATION_JSON).content(truncated))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("error.bulkAborted"))
+                .andExpect(jsonPath("$.committed").value(2))
+                .andExpect(jsonPath("$.results.length()").value(2))
+                .andExpect(jsonPath("$.results.[*].status").value(hasItem("CREATED")));
+
+            assertThat(moneyRepository.findAll().stream().filter(m -> !idsBeforeBulk.contains(m.getId()))).hasSize(2);
+        } finally {
+            moneyRepository.deleteAll(
+                moneyRepository.findAll().stream().filter(m -> !idsBeforeBulk.contains(m.getId())).collect(Collectors.toList())
+            );
+        }
+    }
+
     @Test
     @Transactional
     void checkRollIsRequired() throws Exception {
@@ -169,6 +261,171 @@ class MoneyResourceIT {
             .andExpect(jsonPath("$.[*].income").value(hasItem(DEFAULT_INCOME)));
     }
 
+    @Test
+    @Transactional
+    void getAllMoniesInKeysetMode() throws Exception {
+        // Initialize the database
+        moneyRepository.saveAndFlush(money);
+        Money nextMoney = moneyRepository.saveAndFlush(createEntity(em));
+
+        // Get the first slice, the next one is linked
+        restMoneyMockMvc
+            .perform(get(ENTITY_API_URL + "?after=" + (money.getId() - 1) + "&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + money.getId())))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(money.getId().intValue()));
+
+        // Get the last slice
+        restMoneyMockMvc
+            .perform(get(ENTITY_API_URL + "?after=" + money.getId() + "&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(nextMoney.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllMoniesWithoutCount() throws Exception {
+        // Initialize the database
+        moneyRepository.saveAndFlush(money);
+        moneyRepository.saveAndFlush(createEntity(em));
+
+        // Get the first page, no total is counted
+        restMoneyMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&size=1&count=none"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("X-Has-Next-Page", "true"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @Transactional
+    void getAllMoniesWithEstimatedCount() throws Exception {
+        // Initialize the database
+        moneyRepository.saveAndFlush(money);
+
+        // Get the first page, the total is estimated
+        restMoneyMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&count=estimate"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(header().string("X-Total-Count-Estimated", "true"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(money.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllMoniesWithUnsupportedCount() throws Exception {
+        restMoneyMockMvc.perform(get(ENTITY_API_URL + "?count=sometimes")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getMoneyIncomeStats() throws Exception {
+        // Initialize the database
+        moneyRepository.saveAndFlush(money);
+        moneyRepository.saveAndFlush(createEntity(em).income(UPDATED_INCOME));
+
+        // Get the income statistics of the roll
+        String rollStats = "$[?(@.roll == '" + DEFAULT_ROLL + "')]";
+        restMoneyMockMvc
+            .perform(get(ENTITY_API_URL + "/stats?percentiles=50,100"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath(rollStats + ".count").value(hasItem(2)))
+            .andExpect(jsonPath(rollStats + ".total").value(hasItem(DEFAULT_INCOME + UPDATED_INCOME)))
+            .andExpect(jsonPath(rollStats + ".min").value(hasItem(DEFAULT_INCOME)))
+            .andExpect(jsonPath(rollStats + ".max").value(hasItem(UPDATED_INCOME)))
+            .andExpect(jsonPath(rollStats + ".average").value(hasItem(1.5)))
+            .andExpect(jsonPath(rollStats + ".percentiles['50']").value(hasItem(DEFAULT_INCOME)))
+            .andExpect(jsonPath(rollStats + ".percentiles['100']").value(hasItem(UPDATED_INCOME)));
+    }
+
+    @Test
+    @Transactional
+    void getMoneyIncomeStatsOfSeveralRolls() throws Exception {
+        // Initialize the database: incomes 1 to 4 for the default roll, and 10 to 100 for the updated roll
+        for (int income = 4; income >= 1; income--) {
+            moneyRepository.save(createEntity(em).income(income));
+        }
+        for (int income = 10; income <= 100; income += 10) {
+            moneyRepository.save(createEntity(em).roll(UPDATED_ROLL).income(income));
+        }
+        moneyRepository.flush();
+
+        // Get the income statistics of each roll
+        String defaultRollStats = "$[?(@.roll == '" + DEFAULT_ROLL + "')]";
+        String updatedRollStats = "$[?(@.roll == '" + UPDATED_ROLL + "')]";
+        restMoneyMockMvc
+            .perform(get(ENTITY_API_URL + "/stats?percentiles=1,25,50,90,100"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath(defaultRollStats + ".count").value(hasItem(4)))
+            .andExpect(jsonPath(defaultRollStats + ".percentiles['1']").value(hasItem(1)))
+            .andExpect(jsonPath(defaultRollStats + ".percentiles['25']").value(hasItem(1)))
+            .andExpect(jsonPath(defaultRollStats + ".percentiles['50']").value(hasItem(2)))
+            .andExpect(jsonPath(defaultRollStats + ".percentiles['90']").value(hasItem(4)))
+            .andExpect(jsonPath(defaultRollStats + ".percentiles['100']").value(hasItem(4)))
+            .andExpect(jsonPath(updatedRollStats + ".count").value(hasItem(10)))
+            .andExpect(jsonPath(updatedRollStats + ".percentiles['1']").value(hasItem(10)))
+            .andExpect(jsonPath(updatedRollStats + ".percentiles['25']").value(hasItem(30)))
+            .andExpect(jsonPath(updatedRollStats + ".percentiles['50']").value(hasItem(50)))
+            .andExpect(jsonPath(updatedRollStats + ".percentiles['90']").value(hasItem(90)))
+            .andExpect(jsonPath(updatedRollStats + ".percentiles['100']").value(hasItem(100)));
+    }
+
+    @Test
+    @Transactional
+    void getMoneyIncomeStatsWithInvalidPercentile() throws Exception {
+        restMoneyMockMvc.perform(get(ENTITY_API_URL + "/stats?percentiles=0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void exportMoniesAsNdjson() throws Exception {
+        // Initialize the database
+        moneyRepository.saveAndFlush(money);
+
+        // Export all the moneyList
+        restMoneyMockMvc
+            .perform(get(ENTITY_API_URL + "/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(containsString("\"id\":" + money.getId() + ",\"name\":\"" + DEFAULT_NAME + "\"")))
+            .andExpect(content().string(containsString("\n")));
+    }
+
+    @Test
+    @Transactional
+    void exportMoniesAsCsv() throws Exception {
+        // Initialize the database
+        moneyRepository.saveAndFlush(money);
+
+        // Export all the moneyList
+        restMoneyMockMvc
+            .perform(get(ENTITY_API_URL + "/export?format=csv"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(content().string(containsString("id,name,roll,income\r\n")))
+            .andExpect(
+                content().string(containsString(money.getId() + "," + DEFAULT_NAME + "," + DEFAULT_ROLL + "," + DEFAULT_INCOME + "\r\n"))
+            );
+    }
+
+    @Test
+    @Transactional
+    void exportMoniesWithUnsupportedFormat() throws Exception {
+        restMoneyMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getMoney() throws Exception {
@@ -1,5 +1,7 @@
 package com.pmhung2.web.rest;
 
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -62,6 +64,22 @@ class PublicUserResourceIT {
             .andExpect(jsonPath("$.[*].langKey").doesNotExist());
     }
 
+    @Test
+    @Transactional
+    void getAllPublicUsersInKeysetMode() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        // Get the users after the first one
+        restUserMockMvc
+            .perform(get("/api/users?after=" + (user.getId() - 1) + "&size=50").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(everyItem(greaterThan(user.getId().intValue() - 1))))
+            .andExpect(jsonPath("$.[*].login").value(hasItem(DEFAULT_LOGIN)));
+    }
+
     @Test
     @Transactional
     void getAllAuthorities() throws Exception {
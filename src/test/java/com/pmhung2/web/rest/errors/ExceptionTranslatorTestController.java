@@ -1,5 +1,6 @@
 package com.pmhung2.web.rest.errors;
 
+import com.pmhung2.security.PasswordHashingRejectedException;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.springframework.dao.ConcurrencyFailureException;
@@ -31,6 +32,11 @@ public class ExceptionTranslatorTestController {
         throw new AccessDeniedException("test access denied!");
     }
 
+    @GetMapping("/password-hashing-rejected")
+    public void passwordHashingRejected() {
+        throw new PasswordHashingRejectedException("test password hashing rejected", null);
+    }
+
     @GetMapping("/unauthorized")
     public void unauthorized() {
         throw new BadCredentialsException("test authentication failed!");